@@ -0,0 +1,59 @@
+package com.blbu.BLBU_VR_APP_SERVICE.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection and reporting helpers shared by the database benchmarks.
+ * They run against a scratch MySQL (the local docker compose one by default) and only create and
+ * drop their own bench_* tables and databases. Configure with -Dbench.url, -Dbench.user and
+ * -Dbench.password, or the SPRING_DATASOURCE_* environment variables the dev profile uses.
+ */
+final class Benchmarks {
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3307/blbu_vr_app";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * A connection with batched statements rewritten into multi-row INSERTs, as the service configures Hikari.
+     */
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(url(), user(), password());
+    }
+
+    static String url() {
+        String url = System.getProperty("bench.url", env("SPRING_DATASOURCE_URL", DEFAULT_URL));
+        return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+    }
+
+    static String user() {
+        return System.getProperty("bench.user", env("SPRING_DATASOURCE_USERNAME", "root"));
+    }
+
+    static String password() {
+        return System.getProperty("bench.password", env("SPRING_DATASOURCE_PASSWORD", ""));
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    static double perSecond(long count, long nanos) {
+        return count * 1_000_000_000.0 / Math.max(1, nanos);
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
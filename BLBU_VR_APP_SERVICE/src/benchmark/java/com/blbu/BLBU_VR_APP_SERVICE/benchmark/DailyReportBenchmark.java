@@ -0,0 +1,347 @@
+package com.blbu.BLBU_VR_APP_SERVICE.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent.EventType;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.DailyReportSnapshotRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.DailyRollupRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.IdSequenceRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoMetadataRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.service.DailyReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.IdRangeAllocator;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ReportSnapshotService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.RollupService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.TelemetryWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Time to build one day's report with the aggregation getDailyReport used before (every event since
+ * midnight loaded as entities and filtered in Java, the violation list rescanned per completion, one
+ * user lookup per completion) against {@link DailyReportService} as it is now. The day is today, so
+ * the service never answers from a snapshot. Schema and JPA settings are the service's own, in a
+ * scratch bench_daily_report database.
+ * Run with {@code ./gradlew dailyReportBenchmark}; -Dbench.completions, -Dbench.events-per-completion,
+ * -Dbench.violations, -Dbench.users and -Dbench.rounds size the run.
+ */
+public class DailyReportBenchmark {
+
+    private static final String DATABASE = "bench_daily_report";
+
+    public static void main(String[] args) throws SQLException {
+        int completions = Benchmarks.intProperty("bench.completions", 10_000);
+        int eventsPerCompletion = Benchmarks.intProperty("bench.events-per-completion", 20);
+        int violations = Benchmarks.intProperty("bench.violations", 2_000);
+        int users = Benchmarks.intProperty("bench.users", 2_000);
+        int rounds = Benchmarks.intProperty("bench.rounds", 5);
+
+        try (Connection connection = Benchmarks.connect()) {
+            Benchmarks.execute(connection, "DROP DATABASE IF EXISTS " + DATABASE);
+            Benchmarks.execute(connection, "CREATE DATABASE " + DATABASE);
+            try (HikariDataSource dataSource = dataSource()) {
+                run(dataSource, completions, eventsPerCompletion, violations, users, rounds);
+            } finally {
+                Benchmarks.execute(connection, "DROP DATABASE IF EXISTS " + DATABASE);
+            }
+        }
+    }
+
+    private static void run(DataSource dataSource, int completions, int eventsPerCompletion, int violations,
+                            int users, int rounds) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.blbu.BLBU_VR_APP_SERVICE.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(jpaProperties());
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+            VideoCompletionRepository completionRepository = repositories.getRepository(VideoCompletionRepository.class);
+            VideoWatchEventRepository watchEventRepository = repositories.getRepository(VideoWatchEventRepository.class);
+            VRAppUserRepository userRepository = repositories.getRepository(VRAppUserRepository.class);
+            RollupService rollupService = new RollupService(
+                    repositories.getRepository(DailyRollupRepository.class), jdbcTemplate, transactionManager, 31);
+
+            LocalDate today = LocalDate.now();
+            seed(repositories, transactionManager, jdbcTemplate, rollupService, today, completions, eventsPerCompletion,
+                    violations, users);
+            rollupService.flush();
+
+            // The service as the application wires it, field injection included
+            context.registerBean(VideoCompletionRepository.class, () -> completionRepository);
+            context.registerBean(VideoWatchEventRepository.class, () -> watchEventRepository);
+            context.registerBean(VRAppUserRepository.class, () -> userRepository);
+            context.registerBean(ReportSnapshotService.class, () -> new ReportSnapshotService(
+                    repositories.getRepository(DailyReportSnapshotRepository.class), new ObjectMapper(),
+                    transactionManager, 10, 90));
+            context.registerBean(RollupService.class, () -> rollupService);
+            context.registerBean(PlatformTransactionManager.class, () -> transactionManager);
+            context.registerBean(DailyReportService.class);
+            context.refresh();
+            DailyReportService dailyReportService = context.getBean(DailyReportService.class);
+
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            Supplier<Map<String, Object>> previous = () -> readOnly.execute(status ->
+                    previousReport(today, completionRepository, watchEventRepository, userRepository));
+            Supplier<Map<String, Object>> current = () -> dailyReportService.getDailyReport(today);
+
+            Map<String, Object> before = previous.get();
+            Map<String, Object> after = current.get();
+            System.out.printf("%,d completions, %,d flagged, %,d events that day%n",
+                    after.get("totalCompletions"), after.get("flaggedCount"),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM video_watch_events", Long.class));
+            if (!before.get("totalCompletions").equals(after.get("totalCompletions"))
+                    || !before.get("flaggedCount").equals(after.get("flaggedCount"))) {
+                throw new IllegalStateException("Aggregations disagree: " + before.get("flaggedCount")
+                        + " vs " + after.get("flaggedCount") + " flagged");
+            }
+
+            System.out.printf("%-22s %10s %10s%n", "aggregation", "median ms", "best ms");
+            measure("previous", rounds, previous);
+            measure("current", rounds, current);
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+
+    /**
+     * getDailyReport before the single-pass rewrite, kept verbatim apart from the wiring.
+     */
+    private static Map<String, Object> previousReport(LocalDate date, VideoCompletionRepository completionRepository,
+                                                      VideoWatchEventRepository watchEventRepository,
+                                                      VRAppUserRepository vrAppUserRepository) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+
+        List<VideoCompletion> completions = completionRepository.findAllByDateRange(startOfDay, endOfDay);
+
+        List<VideoWatchEvent> allEvents = watchEventRepository.findByTimestampAfterOrderByTimestampDesc(startOfDay);
+        List<VideoWatchEvent> violations = allEvents.stream()
+                .filter(e -> e.getTimestamp().isBefore(endOfDay) &&
+                        (e.getEventType().toString().equals("VIOLATION") ||
+                         e.getEventType().toString().equals("SEEK_ATTEMPT")))
+                .collect(Collectors.toList());
+
+        List<Map<String, Object>> completionData = new ArrayList<>();
+        int flaggedCount = 0;
+
+        for (VideoCompletion completion : completions) {
+            String email = completion.getEmail();
+            Long videoId = completion.getVideo().getId();
+
+            List<VideoWatchEvent> userViolations = violations.stream()
+                    .filter(v -> v.getEmail().equals(email) &&
+                            v.getVideo() != null && v.getVideo().getId().equals(videoId))
+                    .collect(Collectors.toList());
+
+            String userName = vrAppUserRepository.findByEmail(email)
+                    .map(u -> u.getFirstName() + " " + u.getLastName())
+                    .orElse(email);
+
+            Map<String, Object> completionInfo = new HashMap<>();
+            completionInfo.put("email", email);
+            completionInfo.put("userName", userName);
+            completionInfo.put("videoTitle", completion.getVideo().getTitle());
+            completionInfo.put("completedAt", completion.getCompletedAt());
+            completionInfo.put("flagged", !userViolations.isEmpty());
+            completionInfo.put("violations", userViolations.stream()
+                    .map(v -> {
+                        Map<String, Object> violation = new HashMap<>();
+                        violation.put("type", v.getEventType().toString());
+                        violation.put("timestamp", v.getTimestamp());
+                        violation.put("details", v.getDetails());
+                        return violation;
+                    })
+                    .collect(Collectors.toList()));
+
+            if (!userViolations.isEmpty()) {
+                flaggedCount++;
+            }
+
+            completionData.add(completionInfo);
+        }
+
+        long totalUsers = vrAppUserRepository.findByActiveTrue().size();
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("date", date.toString());
+        report.put("totalCompletions", completions.size());
+        report.put("flaggedCount", flaggedCount);
+        report.put("totalUsers", totalUsers);
+        report.put("completions", completionData);
+        return report;
+    }
+
+    /**
+     * Users, the seven videos, and for today the completions, progress updates between them and violations.
+     */
+    private static void seed(JpaRepositoryFactory repositories, JpaTransactionManager transactionManager,
+                             JdbcTemplate jdbcTemplate, RollupService rollupService, LocalDate day, int completions,
+                             int eventsPerCompletion, int violations, int users) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        VRAppUserRepository userRepository = repositories.getRepository(VRAppUserRepository.class);
+        VideoMetadataRepository videoRepository = repositories.getRepository(VideoMetadataRepository.class);
+
+        transaction.executeWithoutResult(status -> {
+            List<VRAppUser> participants = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                participants.add(VRAppUser.builder()
+                        .email(email(i))
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .build());
+            }
+            userRepository.saveAll(participants);
+        });
+        List<VideoMetadata> videos = transaction.execute(status -> {
+            List<VideoMetadata> saved = new ArrayList<>();
+            for (int order = 1; order <= 7; order++) {
+                VideoMetadata video = new VideoMetadata();
+                video.setFilename("video-" + order + ".mp4");
+                video.setTitle("Session " + order);
+                video.setDisplayOrder(order);
+                saved.add(videoRepository.save(video));
+            }
+            return saved;
+        });
+
+        IdRangeAllocator allocator = new IdRangeAllocator(jdbcTemplate, transactionManager,
+                repositories.getRepository(IdSequenceRepository.class), 1000);
+        TelemetryWriter writer = new TelemetryWriter(jdbcTemplate, allocator, rollupService, 1000, 60_000);
+        writer.start();
+        try {
+            long secondsPerCompletion = 86_000L / completions;
+            List<VideoCompletion> completionBatch = new ArrayList<>();
+            List<VideoWatchEvent> eventBatch = new ArrayList<>();
+            for (int i = 0; i < completions; i++) {
+                LocalDateTime completedAt = day.atStartOfDay().plusSeconds(secondsPerCompletion * i + 1);
+                VideoMetadata video = videos.get(i % videos.size());
+                completionBatch.add(VideoCompletion.builder()
+                        .email(email(i % users))
+                        .video(video)
+                        .completedAt(completedAt)
+                        .build());
+                for (int e = 0; e < eventsPerCompletion; e++) {
+                    eventBatch.add(event(i % users, i, video, EventType.PROGRESS_UPDATE,
+                            completedAt.minusSeconds(eventsPerCompletion - e)));
+                }
+                if (i < violations) {
+                    // Spread over users and videos, so some completions carry several
+                    int completion = (int) ((long) i * 7919 % completions);
+                    eventBatch.add(event(completion % users, completion, videos.get(completion % videos.size()),
+                            i % 3 == 0 ? EventType.SEEK_ATTEMPT : EventType.VIOLATION, completedAt));
+                }
+                if (eventBatch.size() >= 5_000) {
+                    writer.insertEvents(eventBatch);
+                    eventBatch.clear();
+                }
+                if (completionBatch.size() >= 1_000) {
+                    writer.insertCompletions(completionBatch);
+                    completionBatch.clear();
+                }
+            }
+            writer.insertEvents(eventBatch);
+            writer.insertCompletions(completionBatch);
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private static VideoWatchEvent event(int user, int session, VideoMetadata video, EventType type,
+                                         LocalDateTime timestamp) {
+        return VideoWatchEvent.builder()
+                .email(email(user))
+                .sessionId("session-" + session)
+                .video(video)
+                .eventType(type)
+                .videoTime(300.0)
+                .videoDuration(600.0)
+                .percentWatched(50.0)
+                .details(type == EventType.PROGRESS_UPDATE ? "Progress: 50%" : "Tried to skip ahead")
+                .timestamp(timestamp)
+                .ipAddress("10.0.0." + user % 250)
+                .userAgent("Mozilla/5.0 (Linux; Android 12; Quest 3) AppleWebKit/537.36 OculusBrowser/33.0")
+                .build();
+    }
+
+    private static String email(int user) {
+        return "participant" + user + "@example.org";
+    }
+
+    private static void measure(String aggregation, int rounds, Supplier<Map<String, Object>> report) {
+        long[] millis = new long[rounds];
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            report.get();
+            millis[round] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-22s %10d %10d%n", aggregation, millis[rounds / 2], millis[0]);
+    }
+
+    private static HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(Benchmarks.url());
+        dataSource.setUsername(Benchmarks.user());
+        dataSource.setPassword(Benchmarks.password());
+        dataSource.setCatalog(DATABASE);
+        dataSource.setMaximumPoolSize(4);
+        return dataSource;
+    }
+
+    // Mirrors spring.jpa.* in the service's profiles, plus Spring Boot's naming strategies
+    private static Properties jpaProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        properties.setProperty("hibernate.jdbc.time_zone", "UTC");
+        properties.setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.setProperty("hibernate.implicit_naming_strategy",
+                "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy");
+        return properties;
+    }
+}
@@ -0,0 +1,138 @@
+package com.blbu.BLBU_VR_APP_SERVICE.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.blbu.BLBU_VR_APP_SERVICE.util.ParallelGzip;
+
+/**
+ * Compress and decompress throughput of {@link ParallelGzip} against a single GZIP stream, on a generated
+ * watch event CSV shaped like the ones /api/reports/events/export produces. Both outputs are checked to
+ * decompress to the input with the JDK's own reader. Needs no database.
+ * Run with {@code ./gradlew parallelGzipBenchmark}; -Dbench.rows sizes the file and -Dbench.rounds the repeats.
+ */
+public class ParallelGzipBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int rows = Benchmarks.intProperty("bench.rows", 2_000_000);
+        int rounds = Benchmarks.intProperty("bench.rounds", 3);
+
+        Path directory = Files.createTempDirectory("bench-gzip-");
+        try {
+            Path csv = directory.resolve("events.csv");
+            writeCsv(csv, rows);
+            long size = Files.size(csv);
+            System.out.printf("%,d rows, %.1f MB, %d cores%n", rows, size / 1e6, Runtime.getRuntime().availableProcessors());
+
+            Path single = directory.resolve("single.csv.gz");
+            Path parallel = directory.resolve("parallel.csv.gz");
+            Path restored = directory.resolve("restored.csv");
+
+            System.out.printf("%-22s %10s %10s%n", "path", "MB/s", "ratio");
+            double best = 0;
+            for (int round = 0; round < rounds; round++) {
+                best = Math.max(best, measure(size, () -> singleCompress(csv, single)));
+            }
+            print("gzip stream compress", best, size, single);
+            best = 0;
+            for (int round = 0; round < rounds; round++) {
+                best = Math.max(best, measure(size, () -> ParallelGzip.compress(csv, parallel)));
+            }
+            print("parallel compress", best, size, parallel);
+
+            best = 0;
+            for (int round = 0; round < rounds; round++) {
+                best = Math.max(best, measure(size, () -> singleDecompress(single, restored)));
+            }
+            print("gzip stream decompress", best, size, null);
+            best = 0;
+            for (int round = 0; round < rounds; round++) {
+                best = Math.max(best, measure(size, () -> ParallelGzip.decompress(parallel, restored)));
+            }
+            print("parallel decompress", best, size, null);
+
+            // The parallel output is plain multi-member gzip, readable by any gzip reader
+            singleDecompress(parallel, restored);
+            System.out.println("parallel output round-trips through GZIPInputStream: " + sameContent(csv, restored));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private interface Step {
+        void run() throws IOException;
+    }
+
+    private static double measure(long bytes, Step step) throws IOException {
+        long start = System.nanoTime();
+        step.run();
+        return Benchmarks.perSecond(bytes, System.nanoTime() - start) / 1e6;
+    }
+
+    private static void print(String path, double megabytesPerSecond, long size, Path compressed) throws IOException {
+        String ratio = compressed != null ? String.format("%.3f", (double) Files.size(compressed) / size) : "";
+        System.out.printf("%-22s %10.1f %10s%n", path, megabytesPerSecond, ratio);
+    }
+
+    // The single-stream approach the service used before, one deflater on the calling thread
+    private static void singleCompress(Path input, Path output) throws IOException {
+        try (InputStream in = Files.newInputStream(input);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(output), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    private static void singleDecompress(Path input, Path output) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(input), 64 * 1024);
+             OutputStream out = Files.newOutputStream(output)) {
+            in.transferTo(out);
+        }
+    }
+
+    private static boolean sameContent(Path a, Path b) throws IOException {
+        if (Files.size(a) != Files.size(b)) {
+            return false;
+        }
+        try (InputStream left = Files.newInputStream(a); InputStream right = Files.newInputStream(b)) {
+            byte[] leftBuffer = new byte[64 * 1024];
+            byte[] rightBuffer = new byte[64 * 1024];
+            int read;
+            while ((read = left.readNBytes(leftBuffer, 0, leftBuffer.length)) > 0) {
+                if (right.readNBytes(rightBuffer, 0, read) != read
+                        || !Arrays.equals(leftBuffer, 0, read, rightBuffer, 0, read)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeCsv(Path csv, int rows) throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("id,email,session_id,video_id,event_type,video_time,video_duration,percent_watched,details,timestamp");
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                double videoTime = i % 600 * 1.0;
+                writer.write((i + 1) + ",participant" + i % 200 + "@example.org,session-" + i / 100 + "," + (i % 30 + 1)
+                        + ",PROGRESS_UPDATE," + videoTime + ",600.0," + videoTime / 6.0 + ",Progress: " + i % 100 + "%,"
+                        + start.plusSeconds(i));
+                writer.newLine();
+            }
+        }
+    }
+}
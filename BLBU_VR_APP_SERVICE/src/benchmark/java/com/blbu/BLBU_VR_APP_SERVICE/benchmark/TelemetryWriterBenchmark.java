@@ -0,0 +1,177 @@
+package com.blbu.BLBU_VR_APP_SERVICE.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent.EventType;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.DailyRollupRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.IdSequenceRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.service.IdRangeAllocator;
+import com.blbu.BLBU_VR_APP_SERVICE.service.RollupService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.TelemetryWriter;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Watch event insert throughput through the repository against {@link TelemetryWriter}, each one row per
+ * call (one event per request, as the service receives them) and in batches. The schema is the service's
+ * own, created by Hibernate in a scratch bench_telemetry database with the service's JPA settings.
+ * Run with {@code ./gradlew telemetryWriterBenchmark}; -Dbench.rows and -Dbench.batch-size size the run.
+ */
+public class TelemetryWriterBenchmark {
+
+    private static final String DATABASE = "bench_telemetry";
+
+    public static void main(String[] args) throws SQLException {
+        int rows = Benchmarks.intProperty("bench.rows", 50_000);
+        int batchSize = Benchmarks.intProperty("bench.batch-size", 500);
+
+        try (Connection connection = Benchmarks.connect()) {
+            Benchmarks.execute(connection, "DROP DATABASE IF EXISTS " + DATABASE);
+            Benchmarks.execute(connection, "CREATE DATABASE " + DATABASE);
+            try (HikariDataSource dataSource = dataSource()) {
+                run(dataSource, rows, batchSize);
+            } finally {
+                Benchmarks.execute(connection, "DROP DATABASE IF EXISTS " + DATABASE);
+            }
+        }
+    }
+
+    private static void run(DataSource dataSource, int rows, int batchSize) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.blbu.BLBU_VR_APP_SERVICE.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(jpaProperties(batchSize));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+            VideoWatchEventRepository repository = repositories.getRepository(VideoWatchEventRepository.class);
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            IdRangeAllocator allocator = new IdRangeAllocator(jdbcTemplate, transactionManager,
+                    repositories.getRepository(IdSequenceRepository.class), 1000);
+            // A long flush interval, so only full batches and the final flush write queued events
+            RollupService rollupService = new RollupService(
+                    repositories.getRepository(DailyRollupRepository.class), jdbcTemplate, transactionManager, 31);
+            TelemetryWriter writer = new TelemetryWriter(jdbcTemplate, allocator, rollupService, batchSize, 60_000);
+            writer.start();
+
+            System.out.printf("%-18s %12s%n", "path", "inserts/s");
+            measure("save", rows, () -> {
+                for (int i = 0; i < rows; i++) {
+                    VideoWatchEvent event = event(i);
+                    transaction.executeWithoutResult(status -> repository.save(event));
+                }
+            });
+            measure("saveAll batched", rows, () -> {
+                for (List<VideoWatchEvent> batch : batches(rows, batchSize)) {
+                    transaction.executeWithoutResult(status -> repository.saveAll(batch));
+                }
+            });
+            measure("writer", rows, () -> {
+                for (int i = 0; i < rows; i++) {
+                    writer.insertEvent(event(i));
+                }
+            });
+            measure("writer batched", rows, () -> {
+                for (List<VideoWatchEvent> batch : batches(rows, batchSize)) {
+                    writer.insertEvents(batch);
+                }
+            });
+            measure("writer queued", rows, () -> {
+                for (int i = 0; i < rows; i++) {
+                    writer.enqueueEvent(event(i));
+                }
+                writer.flush();
+            });
+            writer.shutdown();
+
+            Long stored = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM video_watch_events", Long.class);
+            System.out.println(stored + " distinct ids stored for " + 5L * rows + " inserts");
+        } finally {
+            factoryBean.destroy();
+        }
+    }
+
+    private static HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(Benchmarks.url());
+        dataSource.setUsername(Benchmarks.user());
+        dataSource.setPassword(Benchmarks.password());
+        dataSource.setCatalog(DATABASE);
+        dataSource.setMaximumPoolSize(4);
+        return dataSource;
+    }
+
+    // Mirrors spring.jpa.* in the service's profiles, plus Spring Boot's naming strategies
+    private static Properties jpaProperties(int batchSize) {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
+        properties.setProperty("hibernate.jdbc.time_zone", "UTC");
+        properties.setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.setProperty("hibernate.implicit_naming_strategy",
+                "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy");
+        return properties;
+    }
+
+    private static void measure(String path, int rows, Runnable inserts) {
+        long start = System.nanoTime();
+        inserts.run();
+        System.out.printf("%-18s %12.0f%n", path, Benchmarks.perSecond(rows, System.nanoTime() - start));
+    }
+
+    private static List<List<VideoWatchEvent>> batches(int rows, int batchSize) {
+        List<List<VideoWatchEvent>> batches = new ArrayList<>();
+        for (int first = 0; first < rows; first += batchSize) {
+            List<VideoWatchEvent> batch = new ArrayList<>();
+            for (int i = first; i < Math.min(rows, first + batchSize); i++) {
+                batch.add(event(i));
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static VideoWatchEvent event(int i) {
+        return VideoWatchEvent.builder()
+                .email("participant" + (i % 200) + "@example.org")
+                .participantId(i % 200 + 1)
+                .sessionId("session-" + i / 100)
+                .eventType(EventType.PROGRESS_UPDATE)
+                .videoTime(i % 600 * 1.0)
+                .videoDuration(600.0)
+                .percentWatched(i % 600 / 6.0)
+                .details("Progress: " + i % 100 + "%")
+                .timestamp(LocalDateTime.now())
+                .ipAddress("10.0.0." + i % 250)
+                .userAgent("Mozilla/5.0 (Linux; Android 12; Quest 3) AppleWebKit/537.36 OculusBrowser/33.0")
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.blbu.BLBU_VR_APP_SERVICE.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import com.blbu.BLBU_VR_APP_SERVICE.util.Uuids;
+
+/**
+ * Random (v4) against time-ordered (v7) BINARY(16) primary keys, on a table shaped like {@code users}
+ * (the key plus a unique email index, which carries a copy of the key in every entry).
+ * For each kind it measures batched insert throughput, point lookups by key, and the resulting data
+ * and index size. Run with {@code ./gradlew uuidKeyBenchmark}; -Dbench.rows and -Dbench.lookups size the run.
+ */
+public class UuidKeyBenchmark {
+
+    public static void main(String[] args) throws SQLException {
+        int rows = Benchmarks.intProperty("bench.rows", 500_000);
+        int lookups = Benchmarks.intProperty("bench.lookups", 100_000);
+        int batchSize = Benchmarks.intProperty("bench.batch-size", 1000);
+
+        try (Connection connection = Benchmarks.connect()) {
+            System.out.printf("%-4s %12s %12s %10s %10s%n", "key", "inserts/s", "lookups/s", "data MB", "index MB");
+            run(connection, "v4", UUID::randomUUID, rows, lookups, batchSize);
+            run(connection, "v7", Uuids::v7, rows, lookups, batchSize);
+        }
+    }
+
+    private static void run(Connection connection, String kind, Supplier<UUID> ids, int rows, int lookups,
+                            int batchSize) throws SQLException {
+        String table = "bench_uuid_" + kind;
+        Benchmarks.execute(connection, "DROP TABLE IF EXISTS " + table);
+        Benchmarks.execute(connection, "CREATE TABLE " + table + " (id BINARY(16) NOT NULL PRIMARY KEY, "
+                + "email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, UNIQUE KEY uk_email (email)) ENGINE=InnoDB");
+        try {
+            List<byte[]> keys = new ArrayList<>(rows);
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + table + " (id, email, password) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < rows; i++) {
+                    byte[] key = Uuids.toBytes(ids.get());
+                    keys.add(key);
+                    insert.setBytes(1, key);
+                    insert.setString(2, "participant" + i + "@example.org");
+                    // Same length as a BCrypt hash
+                    insert.setString(3, "$2a$12$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+                    insert.addBatch();
+                    if ((i + 1) % batchSize == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            long insertNanos = System.nanoTime() - start;
+            connection.setAutoCommit(true);
+
+            Random random = new Random(42);
+            start = System.nanoTime();
+            try (PreparedStatement select = connection.prepareStatement("SELECT email FROM " + table + " WHERE id = ?")) {
+                for (int i = 0; i < lookups; i++) {
+                    select.setBytes(1, keys.get(random.nextInt(keys.size())));
+                    try (ResultSet result = select.executeQuery()) {
+                        result.next();
+                    }
+                }
+            }
+            long lookupNanos = System.nanoTime() - start;
+
+            Benchmarks.execute(connection, "ANALYZE TABLE " + table);
+            double dataMb = 0;
+            double indexMb = 0;
+            try (PreparedStatement size = connection.prepareStatement("SELECT data_length, index_length "
+                    + "FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?")) {
+                size.setString(1, table);
+                try (ResultSet result = size.executeQuery()) {
+                    if (result.next()) {
+                        dataMb = result.getLong(1) / 1048576.0;
+                        indexMb = result.getLong(2) / 1048576.0;
+                    }
+                }
+            }
+            System.out.printf("%-4s %12.0f %12.0f %10.1f %10.1f%n", kind,
+                    Benchmarks.perSecond(rows, insertNanos), Benchmarks.perSecond(lookups, lookupNanos), dataMb, indexMb);
+        } finally {
+            connection.setAutoCommit(true);
+            Benchmarks.execute(connection, "DROP TABLE IF EXISTS " + table);
+        }
+    }
+}
@@ -1,31 +1,69 @@
 package com.blbu.BLBU_VR_APP_SERVICE.config;
 
 import java.time.LocalDate;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import com.blbu.BLBU_VR_APP_SERVICE.service.PdfReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportJob;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ParticipantReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ReportJobService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.VideoService;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaCache;
 
 @Component
 public class ScheduledTasks {
 
     @Autowired
-    private PdfReportService pdfReportService;
+    private ReportJobService reportJobService;
 
-    // Run at 11:59 PM every day
+    @Autowired
+    private ParticipantReportService participantReportService;
+
+    @Autowired
+    private VideoService videoService;
+
+    @Autowired
+    private MediaCache mediaCache;
+
+    // Run at 11:59 PM every day; queues yesterday's PDF (and its report snapshot) as a report job with retries
     @Scheduled(cron = "0 59 23 * * ?")
     public void generateDailyReport() {
         try {
             LocalDate yesterday = LocalDate.now().minusDays(1);
-            System.out.println("Generating daily report for: " + yesterday);
-            String filename = pdfReportService.generateAndSaveDailyReport(yesterday);
-            System.out.println("Daily report generated successfully: " + filename);
+            ReportJob job = reportJobService.enqueue(yesterday, yesterday, "scheduler");
+            System.out.println("Queued daily report for " + yesterday + " as job " + job.getId());
         } catch (Exception e) {
-            System.err.println("Failed to generate daily report: " + e.getMessage());
+            System.err.println("Failed to queue daily report: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
 
+    // Per-participant progress PDFs for the period ending yesterday (00:30 by default)
+    @Scheduled(cron = "${report.participant.cron:0 30 0 * * ?}")
+    public void generateParticipantReports() {
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            participantReportService.startBatch(yesterday);
+            System.out.println("Started participant reports for " + yesterday);
+        } catch (Exception e) {
+            System.err.println("Failed to start participant reports: " + e.getMessage());
+        }
+    }
+
+    // Warm the edge cache with current and upcoming videos (every 15 minutes by default)
+    @Scheduled(fixedDelayString = "${media.cache.prefetch-interval-ms:900000}", initialDelay = 60000)
+    public void prefetchUpcomingVideos() {
+        if (!mediaCache.isEnabled()) {
+            return;
+        }
+        try {
+            Set<String> filenames = videoService.getUpcomingVideoFilenames(1);
+            mediaCache.prefetchAsync(filenames);
+        } catch (Exception e) {
+            System.err.println("Failed to prefetch upcoming videos: " + e.getMessage());
+        }
+    }
+}
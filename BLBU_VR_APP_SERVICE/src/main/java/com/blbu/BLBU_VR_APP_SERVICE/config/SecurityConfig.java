@@ -2,27 +2,53 @@ package com.blbu.BLBU_VR_APP_SERVICE.config;
 
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.blbu.BLBU_VR_APP_SERVICE.repository.UserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.security.JwtAuthenticationFilter;
+import com.blbu.BLBU_VR_APP_SERVICE.security.JwtUtil;
+import com.blbu.BLBU_VR_APP_SERVICE.service.PasswordHashingService;
+
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtUtil jwtUtil, UserRepository userRepository,
+                                                   @Value("${app.session.mode:stateless}") String sessionMode) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
 
+                // Clients authenticate every request with a JWT, so by default nothing is kept in an HTTP session
+                .sessionManagement(session -> session.sessionCreationPolicy(
+                        "stateless".equals(sessionMode) ? SessionCreationPolicy.STATELESS : SessionCreationPolicy.IF_REQUIRED))
+
+                // Bearer tokens are verified once per token and carry the role, see JwtAuthenticationFilter
+                .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, userRepository), UsernamePasswordAuthenticationFilter.class)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+
                 .authorizeHttpRequests(auth -> auth
+                        // Background jobs, pool stats, bulk enrollment, direct media uploads, raw exports, rollup rebuilds
+                        // and participant report batches (POST; their downloads stay open) are for the admin dashboard only
+                        .requestMatchers("/api/purge-jobs/**", "/api/report-jobs/**", "/auth/hash-stats", "/auth/throttle-stats",
+                                "/api/users/import", "/api/media/upload/**", "/api/reports/events/export",
+                                "/api/reports/rollups/rebuild").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/reports/participants").hasRole("ADMIN")
                         .requestMatchers("/health", "/health/**", "/api/**", "/auth/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()  // Allow WebSocket connections
                         .anyRequest().authenticated()
@@ -50,8 +76,9 @@ public class SecurityConfig {
         return source;
     }
 
+    // Same adaptive-cost encoder the hashing pool uses
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
+        return passwordHashingService.getEncoder();
     }
 }
@@ -0,0 +1,41 @@
+package com.blbu.BLBU_VR_APP_SERVICE.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import com.blbu.BLBU_VR_APP_SERVICE.security.InMemorySessionRepository;
+
+/**
+ * In-process HTTP sessions, used when app.session.mode=memory. In the default stateless mode no
+ * session store is set up at all; see SecurityConfig.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "app.session.mode", havingValue = "memory")
+public class SessionConfig {
+
+    private final InMemorySessionRepository sessionRepository;
+
+    public SessionConfig(@Value("${spring.session.timeout:30m}") Duration timeout) {
+        this.sessionRepository = new InMemorySessionRepository(timeout);
+    }
+
+    @Bean
+    public InMemorySessionRepository sessionRepository() {
+        return sessionRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.sweep-interval-ms:60000}")
+    public void removeExpiredSessions() {
+        int removed = sessionRepository.removeExpired();
+        if (removed > 0) {
+            System.out.println("Removed " + removed + " expired session(s)");
+        }
+    }
+}
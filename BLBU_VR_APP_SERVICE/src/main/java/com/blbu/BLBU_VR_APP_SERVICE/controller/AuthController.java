@@ -1,9 +1,14 @@
 package com.blbu.BLBU_VR_APP_SERVICE.controller;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -14,8 +19,11 @@ import org.springframework.web.bind.annotation.RestController;
 import com.blbu.BLBU_VR_APP_SERVICE.model.User;
 import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
 import com.blbu.BLBU_VR_APP_SERVICE.security.JwtUtil;
+import com.blbu.BLBU_VR_APP_SERVICE.service.LoginThrottleService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.PasswordHashingService;
 import com.blbu.BLBU_VR_APP_SERVICE.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Data;
 
 @RestController
@@ -28,6 +36,12 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
     // Register new user
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -39,54 +53,85 @@ public class AuthController {
             return ResponseEntity.ok(Map.of("message", "User registered successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return busy();
         }
     }
 
-    // Login existing user
+    // Login existing user; the password check runs on the hashing pool, not the request thread.
+    // Throttled attempts are turned away here, before any hashing is queued.
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        boolean isValid = userService.validateUserCredentials(loginRequest.getEmail(), loginRequest.getPassword());
-        if (!isValid) {
-            return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        // The peer address, or X-Forwarded-For when the peer is a trusted proxy (see server.forward-headers-strategy)
+        String clientIp = request.getRemoteAddr();
+        LoginThrottleService.Decision decision = loginThrottleService.tryAcquire(loginRequest.getEmail(), clientIp);
+        if (!decision.allowed()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                    .body(Map.of("error", decision.reason(), "retryAfterSeconds", decision.retryAfterSeconds())));
         }
 
-        User user = userService.findByEmail(loginRequest.getEmail()).orElse(null);
-        String role = user != null && user.getRole() != null ? user.getRole().toLowerCase() : "user";
-        
-        String token = jwtUtil.generateToken(loginRequest.getEmail());
-        return ResponseEntity.ok(Map.of(
-                "message", "Login successful", 
-                "token", token,
-                "role", role,
-                "email", loginRequest.getEmail()
-        ));
+        return userService.authenticate(loginRequest.getEmail(), loginRequest.getPassword())
+                .<ResponseEntity<?>>thenApply(authenticated -> {
+                    if (authenticated.isEmpty()) {
+                        return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+                    }
+                    loginThrottleService.recordSuccess(loginRequest.getEmail(), clientIp);
+                    User user = authenticated.get();
+                    String role = user.getRole() != null ? user.getRole().toLowerCase() : "user";
+
+                    String token = jwtUtil.generateToken(loginRequest.getEmail(), role);
+                    return ResponseEntity.ok(Map.of(
+                            "message", "Login successful",
+                            "token", token,
+                            "role", role,
+                            "email", loginRequest.getEmail()
+                    ));
+                })
+                .exceptionally(this::busyOrError);
     }
 
-    // Check session validity
+    // Check session validity; answered from the token's claims, without a user lookup
     @GetMapping("/check-session")
-    public ResponseEntity<?> checkSession(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+    public ResponseEntity<?> checkSession(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                          Authentication authentication) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return ResponseEntity.status(401).body(Map.of("valid", false, "error", "Missing or invalid Authorization header"));
         }
-
-        String token = authHeader.substring(7);
-        boolean isValid = jwtUtil.validateToken(token);
-        if (!isValid) {
+        // Set by JwtAuthenticationFilter only when the bearer token verified
+        if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(401).body(Map.of("valid", false, "error", "Invalid or expired token"));
         }
 
-        String email = jwtUtil.extractEmail(token);
-        User user = userService.findByEmail(email).orElse(null);
-        String role = user != null && user.getRole() != null ? user.getRole().toLowerCase() : "user";
-        
+        String role = authentication.getAuthorities().stream()
+                .map(authority -> authority.getAuthority().substring("ROLE_".length()).toLowerCase())
+                .findFirst()
+                .orElse("user");
+
         return ResponseEntity.ok(Map.of(
                 "valid", true,
-                "email", email,
+                "email", authentication.getName(),
                 "role", role,
                 "message", "Session is active"
         ));
     }
 
+    /**
+     * BCrypt cost, hash latency, queue wait and rejections on the hashing pool
+     */
+    @GetMapping("/hash-stats")
+    public ResponseEntity<?> getHashStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
+    /**
+     * Addresses and emails currently tracked by the login throttle, rejections and lockouts
+     */
+    @GetMapping("/throttle-stats")
+    public ResponseEntity<?> getThrottleStats() {
+        return ResponseEntity.ok(loginThrottleService.getStats());
+    }
+
     @GetMapping("/get-total-users")
     public ResponseEntity<?> getTotalUsers() {
         long totalUsers = userService.getTotalUsers();
@@ -103,8 +148,26 @@ public class AuthController {
             return ResponseEntity.ok(Map.of("message", "User registered successfully from VR app"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return busy();
         }
     }
+
+    private ResponseEntity<?> busyOrError(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return busy();
+        }
+        System.err.println("Login failed: " + cause.getMessage());
+        return ResponseEntity.status(500).body(Map.of("error", "Login failed"));
+    }
+
+    // The hashing pool is saturated; the client should retry shortly
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(Map.of("error", "Server busy, please try again"));
+    }
 }
 
 @Data
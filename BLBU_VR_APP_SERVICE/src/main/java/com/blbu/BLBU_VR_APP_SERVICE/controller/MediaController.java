@@ -0,0 +1,96 @@
+package com.blbu.BLBU_VR_APP_SERVICE.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaCache;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaWriter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    private static final int UPLOAD_BUFFER_SIZE = 1024 * 1024;
+
+    private static final Pattern UPLOAD_KEY = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final MediaStore mediaStore;
+    private final MediaCache mediaCache;
+
+    public MediaController(MediaStore mediaStore, MediaCache mediaCache) {
+        this.mediaStore = mediaStore;
+        this.mediaCache = mediaCache;
+    }
+
+    /**
+     * Stream a stored object with Range, ETag and Last-Modified support.
+     * Served from the local edge cache when it is enabled.
+     */
+    @GetMapping("/stream/{*key}")
+    public void stream(@PathVariable String key, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<MediaObject> object = mediaCache.stat(stripLeadingSlash(key));
+        if (object.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Media not found: " + key);
+            return;
+        }
+        mediaCache.serve(object.get(), request, response);
+    }
+
+    /**
+     * Edge cache hit/miss and bytes-served counters
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(mediaCache.getStats());
+    }
+
+    /**
+     * Upload target handed out by stores that cannot sign direct-to-bucket URLs (e.g. the local store).
+     * Admin only (see SecurityConfig). The request body is streamed straight into the store, and only
+     * replaces the object once all of it has arrived.
+     */
+    @PutMapping("/upload/{*key}")
+    public ResponseEntity<?> upload(
+            @PathVariable String key,
+            @RequestHeader(value = "Content-Type", defaultValue = "video/mp4") String contentType,
+            HttpServletRequest request) {
+        // Upload keys are the generated top-level video names, so reports/ and other folders stay out of reach
+        if (!UPLOAD_KEY.matcher(stripLeadingSlash(key)).matches()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid upload key: " + key));
+        }
+        try (ReadableByteChannel source = Channels.newChannel(request.getInputStream());
+             MediaWriter target = mediaStore.openWriter(stripLeadingSlash(key), contentType)) {
+            long bytes = MediaStore.copy(source, target, Long.MAX_VALUE, UPLOAD_BUFFER_SIZE);
+            target.commit();
+            mediaCache.invalidate(stripLeadingSlash(key));
+            return ResponseEntity.ok(Map.of("key", stripLeadingSlash(key), "size", bytes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to store upload: " + e.getMessage()));
+        }
+    }
+
+    private String stripLeadingSlash(String key) {
+        return key.startsWith("/") ? key.substring(1) : key;
+    }
+}
@@ -0,0 +1,42 @@
+package com.blbu.BLBU_VR_APP_SERVICE.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.blbu.BLBU_VR_APP_SERVICE.service.PurgeService;
+
+@RestController
+@RequestMapping("/api/purge-jobs")
+public class PurgeController {
+
+    private final PurgeService purgeService;
+
+    public PurgeController(PurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    /**
+     * Recent and running purge jobs, newest first
+     */
+    @GetMapping
+    public ResponseEntity<?> listJobs() {
+        return ResponseEntity.ok(purgeService.listJobs());
+    }
+
+    /**
+     * Status and rows deleted so far for one purge job
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        return purgeService.getJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.toMap()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No purge job with id " + jobId)));
+    }
+}
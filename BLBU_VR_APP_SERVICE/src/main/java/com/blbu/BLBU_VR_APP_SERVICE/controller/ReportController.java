@@ -1,22 +1,46 @@
 package com.blbu.BLBU_VR_APP_SERVICE.controller;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.blbu.BLBU_VR_APP_SERVICE.service.DailyReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.EventExportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ParticipantReportService;
 import com.blbu.BLBU_VR_APP_SERVICE.service.PdfReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.RangeReportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.RangeReportService.RangeReport;
+import com.blbu.BLBU_VR_APP_SERVICE.service.RollupService;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStreamer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -24,10 +48,23 @@ public class ReportController {
 
     private final DailyReportService dailyReportService;
     private final PdfReportService pdfReportService;
+    private final RollupService rollupService;
+    private final RangeReportService rangeReportService;
+    private final ParticipantReportService participantReportService;
+    private final EventExportService eventExportService;
+    private final MediaStore mediaStore;
 
-    public ReportController(DailyReportService dailyReportService, PdfReportService pdfReportService) {
+    public ReportController(DailyReportService dailyReportService, PdfReportService pdfReportService,
+                            RollupService rollupService, RangeReportService rangeReportService,
+                            ParticipantReportService participantReportService,
+                            EventExportService eventExportService, MediaStore mediaStore) {
         this.dailyReportService = dailyReportService;
         this.pdfReportService = pdfReportService;
+        this.rollupService = rollupService;
+        this.rangeReportService = rangeReportService;
+        this.participantReportService = participantReportService;
+        this.eventExportService = eventExportService;
+        this.mediaStore = mediaStore;
     }
 
     @GetMapping("/daily")
@@ -42,37 +79,206 @@ public class ReportController {
         }
     }
 
-    @GetMapping("/list")
-    public ResponseEntity<?> listSavedReports() {
+    /**
+     * Adherence, streak and violation totals per participant over [from, to], streamed as JSON.
+     */
+    @GetMapping("/range")
+    public ResponseEntity<?> getRangeReport(@RequestParam String from, @RequestParam String to) {
         try {
-            List<Map<String, Object>> reports = pdfReportService.listSavedReports();
-            return ResponseEntity.ok(reports);
+            RangeReport range = rangeReportService.start(
+                    LocalDate.parse(from, DateTimeFormatter.ISO_DATE),
+                    LocalDate.parse(to, DateTimeFormatter.ISO_DATE));
+            StreamingResponseBody body = out -> rangeReportService.write(range, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", "Too many range reports in progress, try again shortly"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to list reports: " + e.getMessage()));
+                    .body(Map.of("error", "Failed to generate range report: " + e.getMessage()));
         }
     }
 
-    @GetMapping("/download")
-    public ResponseEntity<?> downloadReport(@RequestParam String filename) {
+    /**
+     * Raw watch events over [from, to] as a gzipped CSV download
+     */
+    @GetMapping("/events/export")
+    public void exportEvents(@RequestParam String from, @RequestParam String to,
+                             HttpServletResponse response) throws IOException {
+        Path export;
         try {
-            byte[] pdfBytes = pdfReportService.downloadReport(filename);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(pdfBytes.length);
+            export = eventExportService.export(
+                    LocalDate.parse(from, DateTimeFormatter.ISO_DATE),
+                    LocalDate.parse(to, DateTimeFormatter.ISO_DATE));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        try {
+            response.setContentType("application/gzip");
+            response.setContentLengthLong(Files.size(export));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename("watch-events-" + from + "-" + to + ".csv.gz").build().toString());
+            Files.copy(export, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(export);
+        }
+    }
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", "Report not found: " + e.getMessage()));
+    /**
+     * Render progress PDFs for all active participants for the period ending on date (default yesterday)
+     */
+    @PostMapping("/participants")
+    public ResponseEntity<?> startParticipantReports(@RequestParam(required = false) String date) {
+        try {
+            LocalDate endDate = date != null ? LocalDate.parse(date, DateTimeFormatter.ISO_DATE) : LocalDate.now().minusDays(1);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(participantReportService.startBatch(endDate).toMap());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Recent participant report batches, oldest first
+     */
+    @GetMapping("/participants/batches")
+    public ResponseEntity<?> listParticipantBatches() {
+        return ResponseEntity.ok(participantReportService.listBatches());
+    }
+
+    @GetMapping("/participants/batches/{batchId}")
+    public ResponseEntity<?> getParticipantBatch(@PathVariable String batchId) {
+        return participantReportService.getBatch(batchId)
+                .<ResponseEntity<?>>map(batch -> ResponseEntity.ok(batch.toMap()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No participant report batch with id " + batchId)));
+    }
+
+    /**
+     * Download the zip of all participant reports for a day, with ETag/304 and Range support
+     */
+    @GetMapping("/participants/bundle")
+    public void downloadParticipantBundle(@RequestParam String date, HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
+        LocalDate endDate;
+        try {
+            endDate = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
+        } catch (DateTimeParseException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        Optional<MediaObject> bundle = participantReportService.findBundle(endDate);
+        if (bundle.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "No participant reports for " + date);
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("participant-reports-" + endDate + ".zip").build().toString());
+        MediaStreamer.serve(mediaStore, bundle.get(), request, response);
+    }
+
+    /**
+     * Per user and video counters for a day, read from the rollup table
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<?> getRollups(@RequestParam String date) {
+        try {
+            LocalDate day = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            rollupService.getDay(day).forEach((key, totals) -> {
+                Map<String, Object> row = new HashMap<>();
+                row.put("email", key.email());
+                row.put("videoId", key.videoId());
+                row.put("completions", totals.getCompletions());
+                row.put("violations", totals.getViolations());
+                row.put("events", totals.getEvents());
+                row.put("watchSeconds", totals.getWatchSeconds());
+                rows.add(row);
+            });
+            return ResponseEntity.ok(rows);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read rollups: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Regenerate rollups for a date range (inclusive, at most rollup.rebuild.max-days) from raw completions and watch events
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups(@RequestParam String from, @RequestParam String to) {
+        try {
+            int days = rollupService.rebuild(LocalDate.parse(from, DateTimeFormatter.ISO_DATE),
+                    LocalDate.parse(to, DateTimeFormatter.ISO_DATE));
+            return ResponseEntity.ok(Map.of("daysRebuilt", days));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to rebuild rollups: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Saved reports, newest first. Optional date range (from, to) and paging (page, size); the
+     * number of matches is returned in X-Total-Count.
+     */
+    @GetMapping("/list")
+    public ResponseEntity<?> listSavedReports(@RequestParam(required = false) String from,
+                                              @RequestParam(required = false) String to,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "0") int size,
+                                              WebRequest request) {
+        try {
+            LocalDate fromDate = from != null ? LocalDate.parse(from, DateTimeFormatter.ISO_DATE) : null;
+            LocalDate toDate = to != null ? LocalDate.parse(to, DateTimeFormatter.ISO_DATE) : null;
+            if (page < 0 || size < 0) {
+                return ResponseEntity.badRequest().body(Map.of("error", "page and size must not be negative"));
+            }
+            String variant = from == null && to == null && page == 0 && size == 0
+                    ? null : from + "_" + to + "_" + page + "_" + size;
+            ResponseEntity<List<Map<String, Object>>> listing = pdfReportService.getReportsVersion().respond(
+                    request, variant, CacheControl.noCache(),
+                    () -> pdfReportService.listSavedReports(fromDate, toDate, page, size));
+            return ResponseEntity.status(listing.getStatusCode())
+                    .headers(listing.getHeaders())
+                    .header("X-Total-Count", String.valueOf(pdfReportService.countSavedReports(fromDate, toDate)))
+                    .body(listing.getBody());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to download report: " + e.getMessage()));
+                    .body(Map.of("error", "Failed to list reports: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream a saved report PDF with Content-Length, ETag/304 and Range support
+     */
+    @GetMapping("/download")
+    public void downloadReport(@RequestParam String filename, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        Optional<MediaObject> report;
+        try {
+            report = pdfReportService.findReport(filename);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+        if (report.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "Report not found: " + filename);
+            return;
         }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        pdfReportService.serveReport(report.get(), request, response);
     }
 }
 
@@ -0,0 +1,77 @@
+package com.blbu.BLBU_VR_APP_SERVICE.controller;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportJob;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ReportJobService;
+
+@RestController
+@RequestMapping("/api/report-jobs")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    /**
+     * Queue PDF generation for one day (date) or a range (from, to), e.g. to backfill missed days
+     */
+    @PostMapping
+    public ResponseEntity<?> enqueue(@RequestParam(required = false) String date,
+                                     @RequestParam(required = false) String from,
+                                     @RequestParam(required = false) String to) {
+        try {
+            LocalDate fromDate;
+            LocalDate toDate;
+            if (date != null) {
+                fromDate = toDate = LocalDate.parse(date, DateTimeFormatter.ISO_DATE);
+            } else if (from != null && to != null) {
+                fromDate = LocalDate.parse(from, DateTimeFormatter.ISO_DATE);
+                toDate = LocalDate.parse(to, DateTimeFormatter.ISO_DATE);
+            } else {
+                return ResponseEntity.badRequest().body(Map.of("error", "Provide either 'date' or both 'from' and 'to'"));
+            }
+            ReportJob job = reportJobService.enqueue(fromDate, toDate, "admin");
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(reportJobService.getJob(job.getId()).orElseGet(job::toMap));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to queue report job: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Recent report jobs, newest first
+     */
+    @GetMapping
+    public ResponseEntity<?> listJobs() {
+        return ResponseEntity.ok(reportJobService.listJobs());
+    }
+
+    /**
+     * Progress of one report job
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+        return reportJobService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "No report job with id " + jobId)));
+    }
+}
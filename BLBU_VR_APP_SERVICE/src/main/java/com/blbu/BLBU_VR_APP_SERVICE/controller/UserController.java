@@ -1,19 +1,30 @@
 package com.blbu.BLBU_VR_APP_SERVICE.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.User;
 import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ParticipantImportService;
+import com.blbu.BLBU_VR_APP_SERVICE.service.ParticipantImportService.ImportRow;
+import com.blbu.BLBU_VR_APP_SERVICE.service.PurgeService;
 import com.blbu.BLBU_VR_APP_SERVICE.service.UserService;
 import com.blbu.BLBU_VR_APP_SERVICE.service.VrAppUserService;
 
@@ -23,10 +34,15 @@ public class UserController {
 
     private final UserService userService;
     private final VrAppUserService vrAppUserService;
+    private final PurgeService purgeService;
+    private final ParticipantImportService participantImportService;
 
-    public UserController(UserService userService, VrAppUserService vrAppUserService) {
+    public UserController(UserService userService, VrAppUserService vrAppUserService, PurgeService purgeService,
+                          ParticipantImportService participantImportService) {
         this.userService = userService;
         this.vrAppUserService = vrAppUserService;
+        this.purgeService = purgeService;
+        this.participantImportService = participantImportService;
     }
 
 
@@ -80,9 +96,10 @@ public class UserController {
      * Get only VR app users (non-admin users) for filtering
      */
     @GetMapping("/vr-users")
-    public ResponseEntity<List<VRAppUser>> getVRAppUsers() {
-        List<VRAppUser> vrUsers = vrAppUserService.getAllVRAppUsers();
-        return ResponseEntity.ok(vrUsers);
+    public ResponseEntity<List<VRAppUser>> getVRAppUsers(WebRequest request) throws Exception {
+        // Participant details: browser-cacheable only, never by a shared proxy
+        return vrAppUserService.getVrUsersVersion().respond(request, null, CacheControl.noCache().cachePrivate(),
+                vrAppUserService::getAllVRAppUsers);
     }
 
     /**
@@ -112,20 +129,15 @@ public class UserController {
     }
 
     /**
-     * Delete a user and all their related data
+     * Delete a user and all their related data.
+     * The user is deactivated immediately and purged in the background; poll /api/purge-jobs/{jobId} for progress.
      */
     @DeleteMapping("/delete")
     public ResponseEntity<?> deleteUser(@RequestParam String email) {
         try {
-            boolean deleted = vrAppUserService.deleteUser(email);
-            if (deleted) {
-                return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "message", "User and all related data deleted successfully"
-                ));
-            } else {
-                return ResponseEntity.status(404).body(Map.of("error", "User not found"));
-            }
+            return purgeService.purgeUser(email)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job.toMap()))
+                    .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "User not found")));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
@@ -155,4 +167,45 @@ public class UserController {
         }
     }
 
+    /**
+     * Enroll a cohort of VR app participants from a JSON array (email, firstName, lastName, password)
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importParticipants(@RequestBody List<ImportRow> rows) {
+        return runImport(rows);
+    }
+
+    /**
+     * Same as above from an uploaded .csv (with a header line) or .json file
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importParticipantsFile(@RequestParam("file") MultipartFile file) {
+        List<ImportRow> rows;
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        try (InputStream input = file.getInputStream()) {
+            rows = name.endsWith(".json") || MediaType.APPLICATION_JSON_VALUE.equals(file.getContentType())
+                    ? participantImportService.parseJson(input)
+                    : participantImportService.parseCsv(input);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Could not read " + file.getOriginalFilename() + ": " + e.getMessage()));
+        }
+        return runImport(rows);
+    }
+
+    private ResponseEntity<?> runImport(List<ImportRow> rows) {
+        try {
+            Map<String, Object> result = participantImportService.importParticipants(rows);
+            return Boolean.TRUE.equals(result.get("imported")) ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (DuplicateKeyException e) {
+            // Someone registered one of these emails mid-import; the whole batch was rolled back
+            return ResponseEntity.status(409).body(Map.of("error", "An email in this import was registered concurrently; nothing was imported, please retry"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).body(Map.of("error", "Import interrupted"));
+        }
+    }
 }
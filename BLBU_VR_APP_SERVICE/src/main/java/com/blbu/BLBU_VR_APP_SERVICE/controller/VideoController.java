@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,31 +15,43 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
+import com.blbu.BLBU_VR_APP_SERVICE.service.PurgeService;
 import com.blbu.BLBU_VR_APP_SERVICE.service.VideoService;
 
 @RestController
 @RequestMapping("/api/videos")
 public class VideoController {
 
+    // Cacheable anywhere, but always revalidated; the ETag makes revalidation a cheap 304
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     private final VideoService videoService;
+    private final PurgeService purgeService;
 
-    public VideoController(VideoService videoService) {
+    public VideoController(VideoService videoService, PurgeService purgeService) {
         this.videoService = videoService;
+        this.purgeService = purgeService;
     }
 
     /**
      * Generates a signed URL for direct upload to GCS.
      * This allows the frontend to upload large files (up to 10GB) directly to GCS.
+     * If the client sends the file's SHA-256 and that content is already stored, no upload URL is
+     * returned ("duplicate": "true") and the client should go straight to confirm-upload.
      */
     @PostMapping("/generate-upload-url")
     public ResponseEntity<?> generateUploadUrl(
             @RequestParam("filename") String filename,
-            @RequestParam(value = "contentType", defaultValue = "video/mp4") String contentType) {
+            @RequestParam(value = "contentType", defaultValue = "video/mp4") String contentType,
+            @RequestParam(value = "sha256", required = false) String sha256) {
         try {
-            Map<String, String> result = videoService.generateSignedUploadUrl(filename, contentType);
+            Map<String, String> result = videoService.generateSignedUploadUrl(filename, contentType, sha256);
             return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Error generating upload URL: " + e.getMessage()));
@@ -53,9 +66,10 @@ public class VideoController {
     public ResponseEntity<String> confirmUpload(
             @RequestParam("filename") String filename,
             @RequestParam("title") String title,
-            @RequestParam(value = "displayOrder", required = false) Integer displayOrder) {
+            @RequestParam(value = "displayOrder", required = false) Integer displayOrder,
+            @RequestParam(value = "sha256", required = false) String sha256) {
         try {
-            String url = videoService.confirmUploadAndAssign(filename, title, displayOrder);
+            String url = videoService.confirmUploadAndAssign(filename, title, displayOrder, sha256);
             return ResponseEntity.ok("Video uploaded successfully at " + url);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -83,7 +97,7 @@ public class VideoController {
     public ResponseEntity<String> getTodaysVideo() {
         try {
             VideoMetadata metadata = videoService.getVideoForDate(LocalDate.now());
-            String publicUrl = videoService.getVideoPublicUrl(metadata.getFilename());
+            String publicUrl = videoService.getVideoPublicUrl(metadata);
             return ResponseEntity.ok(publicUrl);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -95,16 +109,19 @@ public class VideoController {
      * Get today's video with full metadata (id, title, url)
      */
     @GetMapping("/today/metadata")
-    public ResponseEntity<?> getTodaysVideoMetadata() {
+    public ResponseEntity<?> getTodaysVideoMetadata(WebRequest request) {
         try {
-            VideoMetadata metadata = videoService.getVideoForDate(LocalDate.now());
-            String publicUrl = videoService.getVideoPublicUrl(metadata.getFilename());
-            return ResponseEntity.ok(Map.of(
-                    "id", metadata.getId(),
-                    "title", metadata.getTitle() != null ? metadata.getTitle() : "Today's Session",
-                    "url", publicUrl,
-                    "assignedDate", metadata.getAssignedDate().toString()
-            ));
+            LocalDate today = LocalDate.now();
+            return videoService.getVideosVersion().respond(request, today.toString(), REVALIDATE, () -> {
+                VideoMetadata metadata = videoService.getVideoForDate(today);
+                String publicUrl = videoService.getVideoPublicUrl(metadata);
+                return Map.of(
+                        "id", metadata.getId(),
+                        "title", metadata.getTitle() != null ? metadata.getTitle() : "Today's Session",
+                        "url", publicUrl,
+                        "assignedDate", metadata.getAssignedDate().toString()
+                );
+            });
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "No video scheduled for today"));
@@ -116,7 +133,7 @@ public class VideoController {
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
             VideoMetadata metadata = videoService.getVideoForDate(date);
-            String publicUrl = videoService.getVideoPublicUrl(metadata.getFilename());
+            String publicUrl = videoService.getVideoPublicUrl(metadata);
             return ResponseEntity.ok(publicUrl);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -124,57 +141,56 @@ public class VideoController {
         }
     }
 
+    /**
+     * Starts a background purge of the video and its watch data; poll /api/purge-jobs/{jobId} for progress
+     */
     @DeleteMapping("/date/{date}")
-    public ResponseEntity<String> deleteVideoForDate(
+    public ResponseEntity<?> deleteVideoForDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            boolean deleted = videoService.deleteVideoByDate(date);
-            if (deleted) {
-                return ResponseEntity.ok("Video and metadata deleted for date: " + date);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("No video found for date: " + date);
-            }
+            return purgeService.purgeVideoByDate(date)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job.toMap()))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "No video found for date: " + date)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error deleting video: " + e.getMessage());
+                    .body(Map.of("error", "Error deleting video: " + e.getMessage()));
         }
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Long> getVideoCount() {
+    public ResponseEntity<Long> getVideoCount(WebRequest request) {
         try {
-            long count = videoService.getTotalVideoCount();
-            return ResponseEntity.ok(count);
+            return videoService.getVideosVersion().respond(request, null, REVALIDATE,
+                    () -> (long) videoService.getTotalVideoCount());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/get-all-videos")
-    public ResponseEntity<?> getAllVideos() {
+    public ResponseEntity<?> getAllVideos(WebRequest request) {
         try {
-            Iterable<VideoMetadata> videos = videoService.getAllVideos();
-            return ResponseEntity.ok(videos);
+            return videoService.getVideosVersion().respond(request, null, REVALIDATE, videoService::getAllVideos);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error fetching all videos: " + e.getMessage());
         }
     }
 
+    /**
+     * Starts a background purge of the video and its watch data; poll /api/purge-jobs/{jobId} for progress
+     */
     @DeleteMapping("/file/{filename:.+}")
-    public ResponseEntity<String> deleteVideoByFilename(@PathVariable String filename) {
+    public ResponseEntity<?> deleteVideoByFilename(@PathVariable String filename) {
         try {
-            boolean deleted = videoService.deleteVideoByFilename(filename);
-            if (deleted) {
-                return ResponseEntity.ok("Video and metadata deleted for filename: " + filename);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("No video found for filename: " + filename);
-            }
+            return purgeService.purgeVideoByFilename(filename)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.accepted().body(job.toMap()))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(Map.of("error", "No video found for filename: " + filename)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error deleting video: " + e.getMessage());
+                    .body(Map.of("error", "Error deleting video: " + e.getMessage()));
         }
     }
 
@@ -211,7 +227,7 @@ public class VideoController {
     public ResponseEntity<?> getUserVideo(@RequestParam("email") String email) {
         try {
             VideoMetadata metadata = videoService.getVideoForUserDay(email);
-            String publicUrl = videoService.getVideoPublicUrl(metadata.getFilename());
+            String publicUrl = videoService.getVideoPublicUrl(metadata);
             return ResponseEntity.ok(Map.of(
                     "id", metadata.getId(),
                     "title", metadata.getTitle() != null ? metadata.getTitle() : "Your Session",
@@ -224,6 +240,22 @@ public class VideoController {
         }
     }
 
+    /**
+     * Current and next video for a user's headset, with sizes, content hashes and ETags so the next video
+     * can be downloaded ahead of time. Supports If-None-Match; returns 304 while nothing has changed.
+     */
+    @GetMapping("/manifest")
+    public ResponseEntity<?> getPlaylistManifest(@RequestParam("email") String email, WebRequest request) {
+        try {
+            int currentDay = videoService.getCurrentDay(email);
+            return videoService.getVideosVersion().respond(request, "day" + currentDay,
+                    CacheControl.noCache().cachePrivate(), () -> videoService.getPlaylistManifest(currentDay));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "No video found for user: " + e.getMessage()));
+        }
+    }
+
     /**
      * Update video display order (admin only)
      */
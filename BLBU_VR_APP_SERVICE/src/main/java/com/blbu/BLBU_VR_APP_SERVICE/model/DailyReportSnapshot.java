@@ -0,0 +1,35 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Computed daily report for a day that has closed, stored so it never has to be rebuilt from raw events.
+ */
+@Entity
+@Table(name = "daily_report_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyReportSnapshot {
+
+    @Id
+    @Column(name = "report_date", columnDefinition = "DATE")
+    private LocalDate reportDate;
+
+    // Gzipped JSON of the report map
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
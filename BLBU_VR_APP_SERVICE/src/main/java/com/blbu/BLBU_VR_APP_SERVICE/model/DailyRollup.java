@@ -0,0 +1,43 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per (day, user, video) counters, kept up to date at ingestion time by RollupService
+ * so per-day questions never have to rescan raw completions and watch events.
+ */
+@Entity
+@Table(name = "daily_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyRollup {
+
+    @EmbeddedId
+    private DailyRollupId id;
+
+    @Column(name = "completions", nullable = false)
+    private long completions;
+
+    // VIOLATION and SEEK_ATTEMPT events
+    @Column(name = "violations", nullable = false)
+    private long violations;
+
+    @Column(name = "events", nullable = false)
+    private long events;
+
+    // Sum over sessions of the furthest position reached
+    @Column(name = "watch_seconds", nullable = false)
+    private double watchSeconds;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
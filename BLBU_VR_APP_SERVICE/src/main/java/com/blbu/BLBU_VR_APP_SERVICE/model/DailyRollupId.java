@@ -0,0 +1,27 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "rollup_day", columnDefinition = "DATE")
+    private LocalDate day;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "video_id")
+    private Long videoId;
+}
@@ -0,0 +1,26 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest id reserved so far for a table written by TelemetryWriter. Instances reserve ids from here
+ * in blocks (see IdRangeAllocator), so inserts can carry their ids and be batched. The entities' own
+ * table generators reserve from the same rows: with the pooled-lo optimizer (set in the properties)
+ * they also take the block just above next_val, so repository saves and JDBC inserts never overlap
+ * and saves can still be batched.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextVal;
+}
@@ -0,0 +1,24 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Compact integer key for an email, referenced by the telemetry and completion tables
+ * (participant_id) so their rows and per-user indexes hold 4 bytes instead of the email string.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "participants")
+public class Participant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(unique = true, nullable = false)
+    private String email;
+}
@@ -0,0 +1,107 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A background deletion of a user or a video, with its progress and what is needed to finish it
+ * after a restart or to undo its up-front changes if it fails. Rows are kept as history after the job finishes.
+ */
+@Entity
+@Table(name = "purge_jobs", indexes = {
+        @Index(name = "idx_purge_jobs_status", columnList = "status"),
+        @Index(name = "idx_purge_jobs_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurgeJob {
+
+    public enum Type { USER, VIDEO }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 8)
+    private Type type;
+
+    // Email of the user, or filename of the video
+    @Column(name = "target", nullable = false)
+    private String target;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "video_id")
+    private Long videoId;
+
+    // Media object of the video, dropped at the end unless another video shares it
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    // Schedule slot taken from the video up front, given back if the purge fails
+    @Column(name = "display_order")
+    private Integer displayOrder;
+
+    @Column(name = "assigned_date", columnDefinition = "DATE")
+    private LocalDate assignedDate;
+
+    // The user was active and deactivated up front; reactivated if the purge fails
+    @Column(name = "deactivated_user", nullable = false)
+    private boolean deactivatedUser;
+
+    @Column(name = "watch_events_deleted", nullable = false)
+    private long watchEventsDeleted;
+
+    @Column(name = "completions_deleted", nullable = false)
+    private long completionsDeleted;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> rowsDeleted = new LinkedHashMap<>();
+        rowsDeleted.put("watchEvents", watchEventsDeleted);
+        rowsDeleted.put("completions", completionsDeleted);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("type", type.name());
+        map.put("target", target);
+        map.put("status", status.name());
+        map.put("rowsDeleted", rowsDeleted);
+        map.put("createdAt", createdAt.toString());
+        map.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        map.put("error", lastError);
+        return map;
+    }
+}
@@ -0,0 +1,44 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A stored report PDF, recorded when the report is written so the report list never has to page through the bucket.
+ */
+@Entity
+@Table(name = "report_catalog", indexes = {
+        @Index(name = "idx_report_catalog_report_date", columnList = "report_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportCatalogEntry {
+
+    // Name within the reports folder, e.g. "daily-report-2024-01-15.pdf"
+    @Id
+    @Column(name = "filename", length = 255)
+    private String filename;
+
+    // Null for files whose name carries no date
+    @Column(name = "report_date", columnDefinition = "DATE")
+    private LocalDate reportDate;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "etag", length = 128)
+    private String etag;
+
+    // When the stored object was last written
+    @Column(name = "created_at")
+    private Instant createdAt;
+}
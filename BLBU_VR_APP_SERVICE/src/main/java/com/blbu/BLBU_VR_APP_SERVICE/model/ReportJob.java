@@ -0,0 +1,96 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A request to render and store the PDF reports for a range of days, with its progress.
+ * Rows are kept as history after the job finishes.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = {
+        @Index(name = "idx_report_jobs_status", columnList = "status"),
+        @Index(name = "idx_report_jobs_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "from_date", nullable = false, columnDefinition = "DATE")
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false, columnDefinition = "DATE")
+    private LocalDate toDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    // "admin" or "scheduler"
+    @Column(name = "requested_by", length = 32)
+    private String requestedBy;
+
+    @Column(name = "total_days", nullable = false)
+    private int totalDays;
+
+    @Column(name = "completed_days", nullable = false)
+    private int completedDays;
+
+    @Column(name = "failed_days", nullable = false)
+    private int failedDays;
+
+    // Attempts beyond the first, across all days
+    @Column(name = "retries", nullable = false)
+    private int retries;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("from", fromDate.toString());
+        map.put("to", toDate.toString());
+        map.put("status", status.name());
+        map.put("requestedBy", requestedBy);
+        map.put("totalDays", totalDays);
+        map.put("completedDays", completedDays);
+        map.put("failedDays", failedDays);
+        map.put("retries", retries);
+        map.put("error", lastError);
+        map.put("createdAt", createdAt.toString());
+        map.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        return map;
+    }
+}
@@ -12,8 +12,10 @@ import java.util.UUID;
 @Table(name = "users")
 public class User {
 
+    // Time-ordered so inserts append to the clustered index; see UuidMigrationService for older rows
     @Id
-    @GeneratedValue
+    @UuidV7
+    @Column(columnDefinition = "BINARY(16)")
     private UUID id;
 
     @Column(unique = true, nullable = false)
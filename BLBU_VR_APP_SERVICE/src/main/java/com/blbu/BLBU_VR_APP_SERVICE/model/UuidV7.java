@@ -0,0 +1,18 @@
+package com.blbu.BLBU_VR_APP_SERVICE.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generates a UUID id as a time-ordered UUIDv7 (see Uuids.v7) instead of Hibernate's random v4.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface UuidV7 {
+}
@@ -4,23 +4,32 @@ import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
 
-import java.util.UUID;
-
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "video_completion")
+@Table(name = "video_completion", indexes = {
+        @Index(name = "idx_video_completion_participant", columnList = "participant_id, video_id"),
+        @Index(name = "idx_video_completion_video_id", columnList = "video_id"),
+        @Index(name = "idx_video_completion_completed_at", columnList = "completed_at")
+})
 public class VideoCompletion {
 
+    // Shares its id_sequences row with IdRangeAllocator, see IdSequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "video_completion_ids")
+    @TableGenerator(name = "video_completion_ids", table = "id_sequences", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "video_completion", allocationSize = 1000)
     private Long id;
 
     @Column(name = "email", nullable = false)
     private String email;
 
+    // Per-user lookups go through this key (see ParticipantDirectory) rather than the email string
+    @Column(name = "participant_id")
+    private Integer participantId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "video_id", nullable = false)
     private VideoMetadata video;
@@ -10,7 +10,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 
 @Entity
-@Table(name = "video_metadata")
+@Table(name = "video_metadata", indexes = {
+        @Index(name = "idx_video_metadata_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_video_metadata_storage_key", columnList = "storage_key")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,15 +29,42 @@ public class VideoMetadata {
     private String filename;
     private String gcsUrl;
 
+    // Object in the media store holding the bytes. Differs from filename when this upload was
+    // deduplicated against an existing object; null on rows created before deduplication existed.
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    // Hex SHA-256 of the uploaded file as declared by the client, replaced by the server's own digest once verified
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "hash_verified")
+    private Boolean hashVerified;
+
     @Column(name = "assigned_date", columnDefinition = "DATE")
     private LocalDate assignedDate;
 
     @Column(name = "display_order")
     private Integer displayOrder; // Order of video in the 7-video sequence (1-7)
 
+    // Measured from the uploaded file's mvhd box, not reported by the client
+    @Column(name = "duration_seconds")
+    private Double durationSeconds;
+
+    @Column(name = "bitrate_bps")
+    private Long bitrateBps;
+
+    // True once the moov box is known to precede the media data
+    @Column(name = "fast_start")
+    private Boolean fastStart;
+
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    public String resolveStorageKey() {
+        return storageKey != null ? storageKey : filename;
+    }
+
     @PreUpdate
     public void setUpdatedAt() {
         this.updatedAt = LocalDateTime.now();
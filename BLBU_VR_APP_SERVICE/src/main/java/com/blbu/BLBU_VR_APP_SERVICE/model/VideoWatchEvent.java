@@ -9,16 +9,27 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "video_watch_events")
+@Table(name = "video_watch_events", indexes = {
+        @Index(name = "idx_watch_events_participant", columnList = "participant_id, timestamp"),
+        @Index(name = "idx_watch_events_video_id", columnList = "video_id"),
+        @Index(name = "idx_watch_events_type_timestamp", columnList = "event_type, timestamp")
+})
 public class VideoWatchEvent {
 
+    // Shares its id_sequences row with IdRangeAllocator, see IdSequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "video_watch_events_ids")
+    @TableGenerator(name = "video_watch_events_ids", table = "id_sequences", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "video_watch_events", allocationSize = 1000)
     private Long id;
 
     @Column(nullable = false)
     private String email;
 
+    // Per-user lookups go through this key (see ParticipantDirectory) rather than the email string
+    @Column(name = "participant_id")
+    private Integer participantId;
+
     @Column(nullable = false)
     private String sessionId;
 
@@ -0,0 +1,18 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.DailyReportSnapshot;
+
+public interface DailyReportSnapshotRepository extends JpaRepository<DailyReportSnapshot, LocalDate> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DailyReportSnapshot s WHERE s.reportDate BETWEEN :from AND :to")
+    int deleteByReportDateBetween(LocalDate from, LocalDate to);
+}
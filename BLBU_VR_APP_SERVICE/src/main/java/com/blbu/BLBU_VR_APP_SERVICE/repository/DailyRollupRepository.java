@@ -0,0 +1,32 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.DailyRollup;
+import com.blbu.BLBU_VR_APP_SERVICE.model.DailyRollupId;
+
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollupId> {
+
+    @Query("SELECT r FROM DailyRollup r WHERE r.id.day = :day")
+    List<DailyRollup> findByDay(LocalDate day);
+
+    @Query("SELECT r FROM DailyRollup r WHERE r.id.day >= :from AND r.id.day <= :to")
+    List<DailyRollup> findByDayBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.id.day = :day")
+    int deleteByDay(LocalDate day);
+
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.id.email = :email")
+    int deleteByEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.id.videoId = :videoId")
+    int deleteByVideoId(Long videoId);
+}
@@ -0,0 +1,7 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.IdSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+}
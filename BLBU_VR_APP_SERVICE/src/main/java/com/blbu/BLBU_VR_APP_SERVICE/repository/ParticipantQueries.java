@@ -0,0 +1,15 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+/**
+ * JPQL shared by the repositories of tables that carry a participant id. Queries using it alias their entity {@code x}.
+ */
+final class ParticipantQueries {
+
+    // Resolves the participant id first, so the lookup uses the integer participant index; rows not backfilled
+    // yet (see ParticipantIdMigrationService) match by email within the same ref_or_null lookup
+    static final String MATCHES_EMAIL =
+            "(x.participantId = (SELECT p.id FROM Participant p WHERE p.email = :email) OR (x.participantId IS NULL AND x.email = :email))";
+
+    private ParticipantQueries() {
+    }
+}
@@ -0,0 +1,10 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.Participant;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ParticipantRepository extends JpaRepository<Participant, Integer> {
+    Optional<Participant> findByEmail(String email);
+}
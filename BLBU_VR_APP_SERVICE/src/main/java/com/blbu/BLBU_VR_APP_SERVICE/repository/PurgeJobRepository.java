@@ -0,0 +1,15 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.PurgeJob;
+
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, String> {
+
+    List<PurgeJob> findTop100ByOrderByCreatedAtDesc();
+
+    List<PurgeJob> findByStatusIn(Collection<PurgeJob.Status> statuses);
+}
@@ -0,0 +1,8 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportCatalogEntry;
+
+public interface ReportCatalogRepository extends JpaRepository<ReportCatalogEntry, String> {
+}
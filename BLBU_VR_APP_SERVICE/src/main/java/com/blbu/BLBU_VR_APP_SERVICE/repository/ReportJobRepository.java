@@ -0,0 +1,15 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportJob;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    List<ReportJob> findTop100ByOrderByCreatedAtDesc();
+
+    List<ReportJob> findByStatusIn(Collection<ReportJob.Status> statuses);
+}
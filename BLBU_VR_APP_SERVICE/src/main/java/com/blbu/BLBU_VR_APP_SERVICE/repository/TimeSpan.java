@@ -0,0 +1,11 @@
+package com.blbu.BLBU_VR_APP_SERVICE.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Earliest and latest timestamp of a set of rows; both null when there are none.
+ */
+public interface TimeSpan {
+    LocalDateTime getEarliest();
+    LocalDateTime getLatest();
+}
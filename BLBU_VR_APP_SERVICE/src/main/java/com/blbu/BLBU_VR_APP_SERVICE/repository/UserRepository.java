@@ -2,9 +2,19 @@ package com.blbu.BLBU_VR_APP_SERVICE.repository;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+
+    // Replaces the hash only if it is still the one that was verified, so a concurrent password change wins
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.email = :email AND u.password = :oldHash")
+    int replacePasswordHash(String email, String oldHash, String newHash);
 }
@@ -2,7 +2,9 @@ package com.blbu.BLBU_VR_APP_SERVICE.repository;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -10,4 +12,22 @@ import java.util.UUID;
 public interface VRAppUserRepository extends JpaRepository<VRAppUser, UUID> {
     Optional<VRAppUser> findByEmail(String email);
     List<VRAppUser> findByActiveTrue();
+
+    long countByActiveTrue();
+
+    @Query("SELECT u.currentDay FROM VRAppUser u WHERE u.email = :email")
+    Optional<Integer> findCurrentDayByEmail(String email);
+
+    /**
+     * Names of every user with a completion in [start, end), in one query.
+     */
+    @Query("SELECT u.email AS email, u.firstName AS firstName, u.lastName AS lastName FROM VRAppUser u " +
+            "WHERE u.email IN (SELECT vc.email FROM VideoCompletion vc WHERE vc.completedAt >= :start AND vc.completedAt < :end)")
+    List<NameView> findNamesOfUsersCompletingBetween(LocalDateTime start, LocalDateTime end);
+
+    interface NameView {
+        String getEmail();
+        String getFirstName();
+        String getLastName();
+    }
 }
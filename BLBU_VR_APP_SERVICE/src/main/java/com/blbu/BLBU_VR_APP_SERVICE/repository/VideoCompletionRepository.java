@@ -1,21 +1,28 @@
 package com.blbu.BLBU_VR_APP_SERVICE.repository;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VideoCompletionRepository extends JpaRepository<VideoCompletion, Long> {
 
     // Find completion by email + video
+    @Query("SELECT x FROM VideoCompletion x WHERE " + ParticipantQueries.MATCHES_EMAIL + " AND x.video.id = :videoId")
     Optional<VideoCompletion> findByEmailAndVideo_Id(String email, Long videoId);
 
     // Get all completions for a specific user
+    @Query("SELECT x FROM VideoCompletion x WHERE " + ParticipantQueries.MATCHES_EMAIL)
     List<VideoCompletion> findAllByEmail(String email);
 
     // Get completions for a specific video
@@ -26,6 +33,47 @@ public interface VideoCompletionRepository extends JpaRepository<VideoCompletion
     @Query("DELETE FROM VideoCompletion vc WHERE vc.video.id = :videoId")
     void deleteAllByVideoId(Long videoId);
 
+    // Id batches for chunked purges (see PurgeService)
+    @Query("SELECT vc.id FROM VideoCompletion vc WHERE vc.video.id = :videoId")
+    List<Long> findIdsByVideoId(Long videoId, Pageable pageable);
+
+    @Query("SELECT x.id FROM VideoCompletion x WHERE " + ParticipantQueries.MATCHES_EMAIL)
+    List<Long> findIdsByEmail(String email, Pageable pageable);
+
+    // Days a purge touches, so only those report snapshots are dropped
+    @Query("SELECT MIN(vc.completedAt) AS earliest, MAX(vc.completedAt) AS latest FROM VideoCompletion vc WHERE vc.video.id = :videoId")
+    TimeSpan findTimeSpanByVideoId(Long videoId);
+
+    @Query("SELECT MIN(x.completedAt) AS earliest, MAX(x.completedAt) AS latest FROM VideoCompletion x WHERE " + ParticipantQueries.MATCHES_EMAIL)
+    TimeSpan findTimeSpanByEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM VideoCompletion vc WHERE vc.id IN :ids")
+    int deleteAllByIdIn(List<Long> ids);
+
+    // Delete all completions for a specific user
+    @Modifying
+    @Query("DELETE FROM VideoCompletion x WHERE " + ParticipantQueries.MATCHES_EMAIL)
+    void deleteAllByEmail(String email);
+
+    /**
+     * Completions in [start, end) with their video title, streamed row by row (MySQL needs
+     * Integer.MIN_VALUE as fetch size to stream). Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT vc.email AS email, v.id AS videoId, v.title AS videoTitle, vc.completedAt AS completedAt " +
+            "FROM VideoCompletion vc JOIN vc.video v " +
+            "WHERE vc.completedAt >= :start AND vc.completedAt < :end " +
+            "ORDER BY vc.completedAt")
+    Stream<CompletionView> streamCompletionsBetween(LocalDateTime start, LocalDateTime end);
+
+    interface CompletionView {
+        String getEmail();
+        Long getVideoId();
+        String getVideoTitle();
+        LocalDateTime getCompletedAt();
+    }
+
     // Get all completions for a specific date
     @Query("SELECT vc FROM VideoCompletion vc WHERE vc.completedAt >= :startDate AND vc.completedAt < :endDate")
     List<VideoCompletion> findAllByDateRange(LocalDateTime startDate, LocalDateTime endDate);
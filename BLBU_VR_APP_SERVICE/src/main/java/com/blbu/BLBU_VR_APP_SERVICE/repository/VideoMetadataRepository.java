@@ -2,8 +2,10 @@ package com.blbu.BLBU_VR_APP_SERVICE.repository;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,11 @@ public interface VideoMetadataRepository extends JpaRepository<VideoMetadata, Lo
     Optional<VideoMetadata> findByAssignedDate(LocalDate date);
     Optional<VideoMetadata> findByFilename(String filename);
     Optional<VideoMetadata> findByDisplayOrder(Integer displayOrder);
+
+    // Verified uploads with this content hash, candidates for deduplication
+    List<VideoMetadata> findByContentHashAndHashVerifiedTrue(String contentHash);
+
+    // Number of videos whose bytes live in the given media store object
+    @Query("SELECT COUNT(v) FROM VideoMetadata v WHERE v.storageKey = :storageKey OR (v.storageKey IS NULL AND v.filename = :storageKey)")
+    long countByResolvedStorageKey(String storageKey);
 }
@@ -1,18 +1,27 @@
 package com.blbu.BLBU_VR_APP_SERVICE.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface VideoWatchEventRepository extends JpaRepository<VideoWatchEvent, Long> {
 
+    @Query("SELECT x FROM VideoWatchEvent x WHERE " + ParticipantQueries.MATCHES_EMAIL + " ORDER BY x.timestamp DESC")
     List<VideoWatchEvent> findByEmailOrderByTimestampDesc(String email);
 
     List<VideoWatchEvent> findBySessionIdOrderByTimestampAsc(String sessionId);
@@ -25,11 +34,73 @@ public interface VideoWatchEventRepository extends JpaRepository<VideoWatchEvent
     @Query("SELECT e FROM VideoWatchEvent e WHERE e.eventType = 'VIOLATION' OR e.eventType = 'SEEK_ATTEMPT' ORDER BY e.timestamp DESC")
     List<VideoWatchEvent> findViolations();
 
-    @Query("SELECT COUNT(e) FROM VideoWatchEvent e WHERE e.email = :email AND e.eventType = 'VIDEO_COMPLETE' AND e.video.id = :videoId")
+    @Query("SELECT COUNT(x) FROM VideoWatchEvent x WHERE " + ParticipantQueries.MATCHES_EMAIL + " AND x.eventType = 'VIDEO_COMPLETE' AND x.video.id = :videoId")
     long countCompletionsForUserAndVideo(String email, Long videoId);
 
     List<VideoWatchEvent> findTop100ByOrderByTimestampDesc();
 
+    /**
+     * Violation-type events in [start, end), without loading the entities or their videos.
+     */
+    @Query("SELECT e.email AS email, e.video.id AS videoId, e.eventType AS eventType, " +
+            "e.timestamp AS timestamp, e.details AS details " +
+            "FROM VideoWatchEvent e " +
+            "WHERE e.timestamp >= :start AND e.timestamp < :end AND e.eventType IN :types " +
+            "ORDER BY e.timestamp DESC")
+    List<ViolationView> findViolationsBetween(LocalDateTime start, LocalDateTime end,
+                                              Collection<VideoWatchEvent.EventType> types);
+
+    interface ViolationView {
+        String getEmail();
+        Long getVideoId();
+        VideoWatchEvent.EventType getEventType();
+        LocalDateTime getTimestamp();
+        String getDetails();
+    }
+
+    /**
+     * Every event in [start, end) in timestamp order, streamed row by row for exports (see EventExportService).
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT e.id AS id, e.email AS email, e.sessionId AS sessionId, e.video.id AS videoId, " +
+            "e.eventType AS eventType, e.videoTime AS videoTime, e.videoDuration AS videoDuration, " +
+            "e.percentWatched AS percentWatched, e.details AS details, e.timestamp AS timestamp " +
+            "FROM VideoWatchEvent e " +
+            "WHERE e.timestamp >= :start AND e.timestamp < :end " +
+            "ORDER BY e.timestamp")
+    Stream<ExportView> streamEventsBetween(LocalDateTime start, LocalDateTime end);
+
+    interface ExportView {
+        Long getId();
+        String getEmail();
+        String getSessionId();
+        Long getVideoId();
+        VideoWatchEvent.EventType getEventType();
+        Double getVideoTime();
+        Double getVideoDuration();
+        Double getPercentWatched();
+        String getDetails();
+        LocalDateTime getTimestamp();
+    }
+
+    // Id batches for chunked purges (see PurgeService)
+    @Query("SELECT e.id FROM VideoWatchEvent e WHERE e.video.id = :videoId")
+    List<Long> findIdsByVideoId(Long videoId, Pageable pageable);
+
+    @Query("SELECT x.id FROM VideoWatchEvent x WHERE " + ParticipantQueries.MATCHES_EMAIL)
+    List<Long> findIdsByEmail(String email, Pageable pageable);
+
+    // Days a purge touches, so only those report snapshots are dropped
+    @Query("SELECT MIN(e.timestamp) AS earliest, MAX(e.timestamp) AS latest FROM VideoWatchEvent e WHERE e.video.id = :videoId")
+    TimeSpan findTimeSpanByVideoId(Long videoId);
+
+    @Query("SELECT MIN(x.timestamp) AS earliest, MAX(x.timestamp) AS latest FROM VideoWatchEvent x WHERE " + ParticipantQueries.MATCHES_EMAIL)
+    TimeSpan findTimeSpanByEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM VideoWatchEvent e WHERE e.id IN :ids")
+    int deleteAllByIdIn(List<Long> ids);
+
     // Delete all watch events for a specific video
     @Modifying
     @Query("DELETE FROM VideoWatchEvent e WHERE e.video.id = :videoId")
@@ -37,7 +108,7 @@ public interface VideoWatchEventRepository extends JpaRepository<VideoWatchEvent
 
     // Delete all watch events for a specific user (by email)
     @Modifying
-    @Query("DELETE FROM VideoWatchEvent e WHERE e.email = :email")
+    @Query("DELETE FROM VideoWatchEvent x WHERE " + ParticipantQueries.MATCHES_EMAIL)
     void deleteAllByEmail(String email);
 }
 
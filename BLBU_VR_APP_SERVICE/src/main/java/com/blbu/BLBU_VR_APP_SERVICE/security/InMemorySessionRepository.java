@@ -0,0 +1,159 @@
+package com.blbu.BLBU_VR_APP_SERVICE.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+/**
+ * HTTP sessions held in process memory, for app.session.mode=memory.
+ * Each request works on its own copy of the session. Saving a copy whose attributes did not change
+ * only moves the stored session's last-access time forward; the stored session is replaced only when
+ * something was actually written. Expired sessions are dropped on lookup and by {@link #removeExpired()}.
+ */
+public class InMemorySessionRepository implements SessionRepository<InMemorySessionRepository.TrackedSession> {
+
+    private final Map<String, MapSession> sessions = new ConcurrentHashMap<>();
+    private final Duration defaultMaxInactiveInterval;
+
+    public InMemorySessionRepository(Duration defaultMaxInactiveInterval) {
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    @Override
+    public TrackedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new TrackedSession(session, true);
+    }
+
+    @Override
+    public void save(TrackedSession session) {
+        MapSession current = session.delegate;
+        if (!session.dirty) {
+            MapSession touched = sessions.computeIfPresent(current.getId(), (id, stored) -> {
+                if (current.getLastAccessedTime().isAfter(stored.getLastAccessedTime())) {
+                    stored.setLastAccessedTime(current.getLastAccessedTime());
+                }
+                return stored;
+            });
+            if (touched != null) {
+                return;
+            }
+        }
+        if (!current.getId().equals(current.getOriginalId())) {
+            sessions.remove(current.getOriginalId());
+        }
+        sessions.put(current.getId(), new MapSession(current));
+        session.dirty = false;
+    }
+
+    @Override
+    public TrackedSession findById(String id) {
+        MapSession stored = sessions.get(id);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.isExpired()) {
+            sessions.remove(id, stored);
+            return null;
+        }
+        return new TrackedSession(new MapSession(stored), false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        sessions.remove(id);
+    }
+
+    /**
+     * Drops every expired session; returns how many were removed.
+     */
+    public int removeExpired() {
+        int before = sessions.size();
+        sessions.values().removeIf(MapSession::isExpired);
+        return Math.max(0, before - sessions.size());
+    }
+
+    /**
+     * A request's copy of a session that remembers whether anything other than its access time changed.
+     */
+    public static final class TrackedSession implements Session {
+        private final MapSession delegate;
+        private volatile boolean dirty;
+
+        TrackedSession(MapSession delegate, boolean dirty) {
+            this.delegate = delegate;
+            this.dirty = dirty;
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            dirty = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            dirty = true;
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            dirty = true;
+            delegate.removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            dirty = true;
+            delegate.setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
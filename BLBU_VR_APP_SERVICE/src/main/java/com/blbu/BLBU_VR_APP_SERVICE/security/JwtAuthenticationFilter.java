@@ -0,0 +1,61 @@
+package com.blbu.BLBU_VR_APP_SERVICE.security;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.blbu.BLBU_VR_APP_SERVICE.repository.UserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.security.JwtUtil.VerifiedToken;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates requests carrying a bearer token. The role comes from the token's signed claim, so
+ * an authenticated request needs neither a session nor a user lookup. Requests without a valid
+ * token continue unauthenticated and are left to the authorization rules.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            String token = header.substring(BEARER_PREFIX.length());
+            Optional<VerifiedToken> verified = jwtUtil.verify(token);
+            if (verified.isPresent()) {
+                VerifiedToken claims = verified.get();
+                if (claims.role() == null) {
+                    // Issued before tokens carried the role: look it up once, then it is cached with the token
+                    String role = userRepository.findByEmail(claims.email())
+                            .map(user -> user.getRole() != null ? user.getRole().toLowerCase() : "user")
+                            .orElse("user");
+                    claims = jwtUtil.withRole(token, claims, role);
+                }
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        claims.email(), null, List.of(new SimpleGrantedAuthority("ROLE_" + claims.role().toUpperCase())));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -1,54 +1,127 @@
 package com.blbu.BLBU_VR_APP_SERVICE.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
 
+    public static final String ROLE_CLAIM = "role";
+
     @Value("${jwt.secret}")
     private String secretKey;
+
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 24; // 1 day
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Recently verified tokens by SHA-256 digest, so a token's signature is checked once rather than per request
+    private Map<String, VerifiedToken> verified;
+
+    /**
+     * Claims of a token whose signature and expiry have been checked. {@code role} is null for
+     * tokens issued before the role claim was added.
+     */
+    public record VerifiedToken(String email, String role, long expiresAtMillis) {
     }
 
-    public String generateToken(String email) {
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
+    public String generateToken(String email, String role) {
         return Jwts.builder()
                 .subject(email)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, Jwts.SIG.HS256)
                 .compact();
     }
 
+    /**
+     * Verifies a token, answering from the cache when the same token was verified before and has not expired.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (verified) {
+            VerifiedToken cached = verified.get(digest);
+            if (cached != null) {
+                if (cached.expiresAtMillis() > now) {
+                    return Optional.of(cached);
+                }
+                verified.remove(digest);
+                return Optional.empty();
+            }
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + EXPIRATION_TIME;
+            VerifiedToken result = new VerifiedToken(claims.getSubject(), claims.get(ROLE_CLAIM, String.class), expiresAt);
+            synchronized (verified) {
+                verified.put(digest, result);
+            }
+            return Optional.of(result);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Caches the role looked up for a token that predates the role claim, so the lookup happens once per token.
+     */
+    public VerifiedToken withRole(String token, VerifiedToken verifiedToken, String role) {
+        VerifiedToken result = new VerifiedToken(verifiedToken.email(), role, verifiedToken.expiresAtMillis());
+        synchronized (verified) {
+            verified.put(digest(token), result);
+        }
+        return result;
+    }
+
     public String extractEmail(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return verify(token).map(VerifiedToken::email)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired token"));
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private static String digest(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
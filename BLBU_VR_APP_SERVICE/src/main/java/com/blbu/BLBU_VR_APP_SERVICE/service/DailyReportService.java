@@ -2,25 +2,34 @@ package com.blbu.BLBU_VR_APP_SERVICE.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository.CompletionView;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository.ViolationView;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository.NameView;
 
 @Service
 public class DailyReportService {
 
+    private static final List<VideoWatchEvent.EventType> VIOLATION_TYPES =
+            List.of(VideoWatchEvent.EventType.VIOLATION, VideoWatchEvent.EventType.SEEK_ATTEMPT);
+
     @Autowired
     private VideoCompletionRepository completionRepository;
 
@@ -30,76 +39,129 @@ public class DailyReportService {
     @Autowired
     private VRAppUserRepository vrAppUserRepository;
 
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private record ViolationKey(String email, Long videoId) {
+    }
+
+    /**
+     * Report for one day. Closed days are computed once and then served from their snapshot.
+     */
     public Map<String, Object> getDailyReport(LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+        if (!reportSnapshotService.isClosed(date)) {
+            return buildReport(date);
+        }
+        Optional<Map<String, Object>> snapshot = reportSnapshotService.get(date);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        long generation = reportSnapshotService.generation();
+        return reportSnapshotService.save(date, buildReport(date), generation);
+    }
+
+    /**
+     * Builds the report in one pass over the day's completions.
+     * Three bounded queries up front (the day's violations, the names of users who completed, the
+     * active user count), then each streamed completion costs one hash lookup.
+     */
+    private Map<String, Object> buildReport(LocalDate date) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> buildReportInTransaction(date));
+    }
 
-        // Get all completions for the date
-        List<VideoCompletion> completions = completionRepository.findAllByDateRange(startOfDay, endOfDay);
+    private Map<String, Object> buildReportInTransaction(LocalDate date) {
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime startOfNextDay = date.plusDays(1).atStartOfDay();
 
-        // Get all violations for the date
-        List<VideoWatchEvent> allEvents = watchEventRepository.findByTimestampAfterOrderByTimestampDesc(startOfDay);
-        List<VideoWatchEvent> violations = allEvents.stream()
-                .filter(e -> e.getTimestamp().isBefore(endOfDay) && 
-                        (e.getEventType().toString().equals("VIOLATION") || 
-                         e.getEventType().toString().equals("SEEK_ATTEMPT")))
-                .collect(Collectors.toList());
+        Map<ViolationKey, List<Map<String, Object>>> violationsByUserAndVideo =
+                indexViolations(watchEventRepository.findViolationsBetween(startOfDay, startOfNextDay, VIOLATION_TYPES));
 
-        // Group violations by email and video (for future use if needed)
+        Map<String, String> userNames = new HashMap<>();
+        for (NameView user : vrAppUserRepository.findNamesOfUsersCompletingBetween(startOfDay, startOfNextDay)) {
+            userNames.put(user.getEmail(), user.getFirstName() + " " + user.getLastName());
+        }
 
-        // Build completion data with violations
         List<Map<String, Object>> completionData = new ArrayList<>();
         int flaggedCount = 0;
 
-        for (VideoCompletion completion : completions) {
-            String email = completion.getEmail();
-            Long videoId = completion.getVideo().getId();
-
-            // Find violations for this user and video
-            List<VideoWatchEvent> userViolations = violations.stream()
-                    .filter(v -> v.getEmail().equals(email) && 
-                            v.getVideo() != null && v.getVideo().getId().equals(videoId))
-                    .collect(Collectors.toList());
-
-            // Get user info
-            String userName = vrAppUserRepository.findByEmail(email)
-                    .map(u -> u.getFirstName() + " " + u.getLastName())
-                    .orElse(email);
-
-            Map<String, Object> completionInfo = new HashMap<>();
-            completionInfo.put("email", email);
-            completionInfo.put("userName", userName);
-            completionInfo.put("videoTitle", completion.getVideo().getTitle());
-            completionInfo.put("completedAt", completion.getCompletedAt());
-            completionInfo.put("flagged", !userViolations.isEmpty());
-            completionInfo.put("violations", userViolations.stream()
-                    .map(v -> {
-                        Map<String, Object> violation = new HashMap<>();
-                        violation.put("type", v.getEventType().toString());
-                        violation.put("timestamp", v.getTimestamp());
-                        violation.put("details", v.getDetails());
-                        return violation;
-                    })
-                    .collect(Collectors.toList()));
-
-            if (!userViolations.isEmpty()) {
-                flaggedCount++;
+        try (Stream<CompletionView> completions = completionRepository.streamCompletionsBetween(startOfDay, startOfNextDay)) {
+            for (CompletionView completion : (Iterable<CompletionView>) completions::iterator) {
+                // Range reports cancel days by interrupting them; the streamed loop is where a day spends its time
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Report for " + date + " was cancelled");
+                }
+                String email = completion.getEmail();
+                List<Map<String, Object>> userViolations = violationsByUserAndVideo.getOrDefault(
+                        new ViolationKey(email, completion.getVideoId()), Collections.emptyList());
+
+                Map<String, Object> completionInfo = new HashMap<>();
+                completionInfo.put("email", email);
+                completionInfo.put("userName", userNames.getOrDefault(email, email));
+                completionInfo.put("videoTitle", completion.getVideoTitle());
+                completionInfo.put("completedAt", completion.getCompletedAt());
+                completionInfo.put("flagged", !userViolations.isEmpty());
+                completionInfo.put("violations", userViolations);
+
+                if (!userViolations.isEmpty()) {
+                    flaggedCount++;
+                }
+
+                completionData.add(completionInfo);
             }
-
-            completionData.add(completionInfo);
         }
 
+        // Per user and video totals straight from the rollups, independent of raw event volume
+        List<Map<String, Object>> watchSummary = new ArrayList<>();
+        rollupService.getDay(date).forEach((key, totals) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("email", key.email());
+            row.put("userName", userNames.getOrDefault(key.email(), key.email()));
+            row.put("videoId", key.videoId());
+            row.put("completions", totals.getCompletions());
+            row.put("violations", totals.getViolations());
+            row.put("watchMinutes", Math.round(totals.getWatchSeconds() / 6.0) / 10.0);
+            watchSummary.add(row);
+        });
+
         // Get total active users
-        long totalUsers = vrAppUserRepository.findByActiveTrue().size();
+        long totalUsers = vrAppUserRepository.countByActiveTrue();
 
         Map<String, Object> report = new HashMap<>();
         report.put("date", date.toString());
-        report.put("totalCompletions", completions.size());
+        report.put("totalCompletions", completionData.size());
         report.put("flaggedCount", flaggedCount);
         report.put("totalUsers", totalUsers);
         report.put("completions", completionData);
+        report.put("watchSummary", watchSummary);
 
         return report;
     }
-}
 
+    /**
+     * Groups violations by (email, video) so each completion finds its own in O(1).
+     * Completions of the same video on the same day share one (read-only) list.
+     */
+    private Map<ViolationKey, List<Map<String, Object>>> indexViolations(List<ViolationView> violations) {
+        Map<ViolationKey, List<Map<String, Object>>> index = new HashMap<>();
+        for (ViolationView v : violations) {
+            if (v.getVideoId() == null) {
+                continue;
+            }
+            Map<String, Object> violation = new HashMap<>();
+            violation.put("type", v.getEventType().toString());
+            violation.put("timestamp", v.getTimestamp());
+            violation.put("details", v.getDetails());
+            index.computeIfAbsent(new ViolationKey(v.getEmail(), v.getVideoId()), key -> new ArrayList<>())
+                    .add(violation);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,113 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository.ExportView;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ParallelGzip;
+
+/**
+ * Raw watch events over a date range as gzipped CSV, for analysis outside the dashboard.
+ * Rows are streamed from the database into a scratch CSV file, which is then compressed with
+ * {@link ParallelGzip} on all cores; event logs are repetitive text and shrink well.
+ */
+@Service
+public class EventExportService {
+
+    private static final String HEADER = "id,email,session_id,video_id,event_type,video_time,video_duration,"
+            + "percent_watched,details,timestamp";
+
+    private final VideoWatchEventRepository watchEventRepository;
+    private final TransactionTemplate readOnly;
+    private final int maxDays;
+
+    public EventExportService(VideoWatchEventRepository watchEventRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${reports.export.max-days:92}") int maxDays) {
+        this.watchEventRepository = watchEventRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Writes the events of [from, to] to a gzipped CSV file and returns it. The caller deletes the file.
+     */
+    public Path export(LocalDate from, LocalDate to) throws IOException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Export covers " + days + " days; at most " + maxDays + " are allowed");
+        }
+
+        Path csv = Files.createTempFile("watch-events-", ".csv");
+        Path gzip = null;
+        try {
+            writeCsv(from, to, csv);
+            gzip = Files.createTempFile("watch-events-", ".csv.gz");
+            ParallelGzip.compress(csv, gzip);
+            return gzip;
+        } catch (IOException | RuntimeException e) {
+            if (gzip != null) {
+                Files.deleteIfExists(gzip);
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private void writeCsv(LocalDate from, LocalDate to, Path csv) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<ExportView> events = watchEventRepository.streamEventsBetween(
+                        from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                    for (ExportView event : (Iterable<ExportView>) events::iterator) {
+                        writer.write(event.getId() + "," + field(event.getEmail()) + "," + field(event.getSessionId())
+                                + "," + value(event.getVideoId()) + "," + event.getEventType()
+                                + "," + value(event.getVideoTime()) + "," + value(event.getVideoDuration())
+                                + "," + value(event.getPercentWatched()) + "," + field(event.getDetails())
+                                + "," + event.getTimestamp());
+                        writer.newLine();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String value(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // RFC 4180 quoting, only where the value needs it
+    private static String field(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
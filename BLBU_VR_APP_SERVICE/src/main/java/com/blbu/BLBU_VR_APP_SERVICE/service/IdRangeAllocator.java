@@ -0,0 +1,94 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.repository.IdSequenceRepository;
+
+/**
+ * Hands out ids for tables written with plain JDBC, from blocks reserved in the id_sequences table.
+ * A block is reserved with one atomic UPDATE in its own transaction, so several instances can share a
+ * table and a rolled-back insert only leaves a gap. A table's row holds the highest id reserved so far
+ * and a block is the ids just above it, the way Hibernate's pooled-lo table generator reads the same
+ * rows, so entities generating their ids from id_sequences can share a table with this allocator.
+ */
+@Service
+public class IdRangeAllocator {
+
+    /**
+     * Ids [next, limit) reserved by this instance for one table
+     */
+    private static final class Block {
+        long next;
+        long limit;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+
+    // Guarded by this
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    // The repository dependency makes sure Hibernate has created id_sequences before first use
+    public IdRangeAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            IdSequenceRepository idSequenceRepository,
+                            @Value("${telemetry.writer.id-block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids for a table and returns the first.
+     */
+    public synchronized long allocate(String table, int count) {
+        Block block = blocks.computeIfAbsent(table, ignored -> new Block());
+        if (block.limit - block.next < count) {
+            // Whatever is left of the old block is skipped; ids only need to be unique
+            long size = Math.max(blockSize, count);
+            block.limit = reserve(table, size) + 1;
+            block.next = block.limit - size;
+        }
+        long first = block.next;
+        block.next += count;
+        return first;
+    }
+
+    /**
+     * Moves the table's sequence up to its current highest id if it is behind, creating it if needed.
+     * Tables whose entities also generate ids from id_sequences are seeded at startup: Hibernate creates
+     * their rows at 0 along with the table, which is behind any table that already had rows.
+     */
+    public void seed(String table) {
+        jdbcTemplate.update("INSERT IGNORE INTO id_sequences (name, next_val) SELECT ?, COALESCE(MAX(id), 0) FROM " + table, table);
+        jdbcTemplate.update("UPDATE id_sequences SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) FROM "
+                + table + ")) WHERE name = ?", table);
+    }
+
+    /**
+     * Moves the table's sequence forward by {@code size} and returns its new value, the last id of the reserved range.
+     */
+    private long reserve(String table, long size) {
+        Long end = newTransaction.execute(status -> {
+            String increment = "UPDATE id_sequences SET next_val = LAST_INSERT_ID(next_val + ?) WHERE name = ?";
+            if (jdbcTemplate.update(increment, size, table) == 0) {
+                seed(table);
+                jdbcTemplate.update(increment, size, table);
+            }
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+        if (end == null) {
+            throw new IllegalStateException("Could not reserve ids for " + table);
+        }
+        return end;
+    }
+}
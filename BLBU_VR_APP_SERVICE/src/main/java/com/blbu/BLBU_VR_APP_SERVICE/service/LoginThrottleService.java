@@ -0,0 +1,306 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Brute-force protection for logins, checked before any password hashing.
+ * Every attempt is counted in a sliding window per email and per client IP. Past a few free
+ * attempts an email must wait a doubling delay between tries, and too many attempts lock it out
+ * for a while; an IP only has a (higher) cap. Successful logins clear the email's history and
+ * refund the IP's attempt, so a classroom behind one address is not locked out by its own logins.
+ *
+ * An address that has logged into an account recently is "known" for it and is throttled in its own
+ * (email, address) window instead of the shared email one. Someone guessing a participant's password
+ * from elsewhere can therefore lock out new addresses, but not the participant's usual one.
+ * The client IP is whatever the container resolved; only trusted proxies may set it (see
+ * server.tomcat.remoteip.internal-proxies).
+ *
+ * Counters live in lock-striped, size-capped maps; idle entries are swept periodically.
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final int STRIPES = 64;
+
+    /**
+     * Outcome of {@link #tryAcquire}: allowed, or rejected with the number of seconds to wait.
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds, String reason) {
+        static final Decision ALLOW = new Decision(true, 0, null);
+    }
+
+    /**
+     * Recent attempt times for one key, oldest first, plus any lockout.
+     */
+    private static final class Window {
+        final ArrayDeque<Long> attempts = new ArrayDeque<>();
+        long lockedUntil;
+    }
+
+    /**
+     * One lock per stripe; each stripe's map is access-ordered so the least recently seen key is dropped when full.
+     */
+    private static final class Stripe<V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, V> windows;
+
+        Stripe(int maxKeys) {
+            windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private final Stripe<Window>[] emailStripes = newStripes();
+    private final Stripe<Window>[] ipStripes = newStripes();
+    // Per (email, address) windows for known addresses
+    private final Stripe<Window>[] pairStripes = newStripes();
+    // (email, address) -> time until which the address counts as known for the email
+    private final Stripe<Long>[] knownStripes = newStripes();
+    private final long windowMillis;
+    private final int emailMaxAttempts;
+    private final int emailFreeAttempts;
+    private final int ipMaxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long lockoutMillis;
+    private final long knownAddressMillis;
+
+    // Replaced by tests to step through windows, delays and lockouts
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder lockouts = new LongAdder();
+
+    public LoginThrottleService(@Value("${auth.throttle.window-ms:900000}") long windowMillis,
+                                @Value("${auth.throttle.email-max-attempts:10}") int emailMaxAttempts,
+                                @Value("${auth.throttle.email-free-attempts:3}") int emailFreeAttempts,
+                                @Value("${auth.throttle.ip-max-attempts:100}") int ipMaxAttempts,
+                                @Value("${auth.throttle.base-delay-ms:1000}") long baseDelayMillis,
+                                @Value("${auth.throttle.max-delay-ms:30000}") long maxDelayMillis,
+                                @Value("${auth.throttle.lockout-ms:900000}") long lockoutMillis,
+                                @Value("${auth.throttle.known-address-ms:2592000000}") long knownAddressMillis,
+                                @Value("${auth.throttle.max-keys:100000}") int maxKeys) {
+        this.windowMillis = windowMillis;
+        this.emailMaxAttempts = emailMaxAttempts;
+        this.emailFreeAttempts = emailFreeAttempts;
+        this.ipMaxAttempts = ipMaxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.lockoutMillis = lockoutMillis;
+        this.knownAddressMillis = knownAddressMillis;
+        int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            emailStripes[i] = new Stripe<>(maxKeysPerStripe);
+            ipStripes[i] = new Stripe<>(maxKeysPerStripe);
+            pairStripes[i] = new Stripe<>(maxKeysPerStripe);
+            knownStripes[i] = new Stripe<>(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Counts a login attempt, or rejects it without counting if the email or IP must wait.
+     */
+    public Decision tryAcquire(String email, String ip) {
+        long now = clock.getAsLong();
+        String emailKey = normalize(email);
+        String pairKey = emailKey + " " + ip;
+        boolean known = isKnown(pairKey, now);
+
+        // The IP is checked first but only charged once the email check has also passed
+        Stripe<Window> ipStripe = stripe(ipStripes, ip);
+        ipStripe.lock.lock();
+        try {
+            Window ipWindow = ipStripe.windows.computeIfAbsent(ip, key -> new Window());
+            prune(ipWindow, now);
+            if (ipWindow.attempts.size() >= ipMaxAttempts) {
+                rejected.increment();
+                return reject(ipWindow.attempts.peekFirst() + windowMillis - now, "Too many login attempts from this address");
+            }
+
+            // A known address is only held back by its own failures, not by attempts from elsewhere
+            String accountKey = known ? pairKey : emailKey;
+            Stripe<Window> accountStripe = stripe(known ? pairStripes : emailStripes, accountKey);
+            accountStripe.lock.lock();
+            try {
+                Window accountWindow = accountStripe.windows.computeIfAbsent(accountKey, key -> new Window());
+                prune(accountWindow, now);
+                if (accountWindow.lockedUntil > now) {
+                    rejected.increment();
+                    return reject(accountWindow.lockedUntil - now, "Account temporarily locked after too many failed logins");
+                }
+                int previous = accountWindow.attempts.size();
+                if (previous >= emailFreeAttempts) {
+                    long delay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(20, previous - emailFreeAttempts));
+                    long nextAllowed = accountWindow.attempts.peekLast() + delay;
+                    if (nextAllowed > now) {
+                        rejected.increment();
+                        return reject(nextAllowed - now, "Too many failed logins, please wait before trying again");
+                    }
+                }
+                accountWindow.attempts.addLast(now);
+                if (accountWindow.attempts.size() >= emailMaxAttempts) {
+                    // This attempt may still succeed; recordSuccess lifts the lock
+                    accountWindow.lockedUntil = now + lockoutMillis;
+                    lockouts.increment();
+                }
+            } finally {
+                accountStripe.lock.unlock();
+            }
+
+            ipWindow.attempts.addLast(now);
+            return Decision.ALLOW;
+        } finally {
+            ipStripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Clears the email's failures, remembers the address as known for the email and refunds the IP's attempt.
+     */
+    public void recordSuccess(String email, String ip) {
+        String emailKey = normalize(email);
+        String pairKey = emailKey + " " + ip;
+        remove(stripe(emailStripes, emailKey), emailKey);
+        remove(stripe(pairStripes, pairKey), pairKey);
+
+        Stripe<Long> knownStripe = stripe(knownStripes, pairKey);
+        knownStripe.lock.lock();
+        try {
+            knownStripe.windows.put(pairKey, clock.getAsLong() + knownAddressMillis);
+        } finally {
+            knownStripe.lock.unlock();
+        }
+
+        Stripe<Window> ipStripe = stripe(ipStripes, ip);
+        ipStripe.lock.lock();
+        try {
+            Window ipWindow = ipStripe.windows.get(ip);
+            if (ipWindow != null) {
+                ipWindow.attempts.pollLast();
+            }
+        } finally {
+            ipStripe.lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int emailKeys = 0;
+        int ipKeys = 0;
+        int knownKeys = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            emailKeys += size(emailStripes[i]) + size(pairStripes[i]);
+            ipKeys += size(ipStripes[i]);
+            knownKeys += size(knownStripes[i]);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedEmails", emailKeys);
+        stats.put("trackedAddresses", ipKeys);
+        stats.put("knownAddresses", knownKeys);
+        stats.put("rejected", rejected.sum());
+        stats.put("lockouts", lockouts.sum());
+        return stats;
+    }
+
+    /**
+     * Drops entries with no attempts left in the window and no active lockout.
+     */
+    @Scheduled(fixedDelayString = "${auth.throttle.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        for (int i = 0; i < STRIPES; i++) {
+            sweep(emailStripes[i], now);
+            sweep(ipStripes[i], now);
+            sweep(pairStripes[i], now);
+            Stripe<Long> known = knownStripes[i];
+            known.lock.lock();
+            try {
+                known.windows.values().removeIf(knownUntil -> knownUntil <= now);
+            } finally {
+                known.lock.unlock();
+            }
+        }
+    }
+
+    private boolean isKnown(String pairKey, long now) {
+        Stripe<Long> stripe = stripe(knownStripes, pairKey);
+        stripe.lock.lock();
+        try {
+            Long knownUntil = stripe.windows.get(pairKey);
+            return knownUntil != null && knownUntil > now;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static void remove(Stripe<Window> stripe, String key) {
+        stripe.lock.lock();
+        try {
+            stripe.windows.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void sweep(Stripe<Window> stripe, long now) {
+        stripe.lock.lock();
+        try {
+            Iterator<Window> iterator = stripe.windows.values().iterator();
+            while (iterator.hasNext()) {
+                Window window = iterator.next();
+                prune(window, now);
+                if (window.attempts.isEmpty() && window.lockedUntil <= now) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void prune(Window window, long now) {
+        while (!window.attempts.isEmpty() && window.attempts.peekFirst() <= now - windowMillis) {
+            window.attempts.pollFirst();
+        }
+    }
+
+    private static int size(Stripe<?> stripe) {
+        stripe.lock.lock();
+        try {
+            return stripe.windows.size();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static Decision reject(long waitMillis, String reason) {
+        return new Decision(false, Math.max(1, (waitMillis + 999) / 1000), reason);
+    }
+
+    private static <V> Stripe<V> stripe(Stripe<V>[] stripes, String key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Stripe<V>[] newStripes() {
+        return (Stripe<V>[]) new Stripe<?>[STRIPES];
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
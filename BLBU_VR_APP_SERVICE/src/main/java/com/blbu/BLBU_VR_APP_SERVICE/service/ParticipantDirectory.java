@@ -0,0 +1,78 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.Participant;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.ParticipantRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Email to participant id map for the write path. Every participant is held in memory (one entry
+ * per email ever seen, so a study's worth is small); an unseen email is registered on first use.
+ * Keys are lower-cased to match MySQL's case-insensitive comparison of the unique email column.
+ */
+@Service
+public class ParticipantDirectory {
+
+    private final ParticipantRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+
+    public ParticipantDirectory(ParticipantRepository repository, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        // The new row must survive even if the caller's transaction rolls back, since its id is cached
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Participant participant : repository.findAll()) {
+            idsByEmail.put(key(participant.getEmail()), participant.getId());
+        }
+        System.out.println("Loaded " + idsByEmail.size() + " participant id(s)");
+    }
+
+    /**
+     * The participant id for an email, registering the email if it has none yet.
+     * The database round trip happens outside the map, so it never blocks writers of other emails
+     * that share a bin; two threads racing on a new email both get the row INSERT IGNORE kept.
+     */
+    public int idFor(String email) {
+        Integer id = idsByEmail.get(key(email));
+        if (id != null) {
+            return id;
+        }
+        Integer registered = newTransaction.execute(status -> {
+            // Another thread or instance may register the same email concurrently; IGNORE keeps whichever row won
+            jdbcTemplate.update("INSERT IGNORE INTO participants (email) VALUES (?)", email);
+            return jdbcTemplate.queryForObject("SELECT id FROM participants WHERE email = ?", Integer.class, email);
+        });
+        Integer existing = idsByEmail.putIfAbsent(key(email), registered);
+        return existing != null ? existing : registered;
+    }
+
+    /**
+     * Forgets an email's id, e.g. once a purge has deleted its participant row. The next write for
+     * the email registers it again.
+     */
+    public void evict(String email) {
+        idsByEmail.remove(key(email));
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,120 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Backfills participant_id on video_watch_events and video_completion rows written before the column
+ * existed, then drops the old email indexes those tables no longer need.
+ * Runs on a background thread once the application is serving, one id range per statement with a pause
+ * between ranges, so neither startup nor live writes wait on it. Until it finishes, the per-user queries
+ * also match rows without a participant_id by email, which is why the email indexes are only dropped once
+ * no such rows remain. Once every row has an id this is a single cheap check.
+ */
+@Service
+public class ParticipantIdMigrationService {
+
+    // Completions first: they are few, and completion checks are what guard against duplicate completions
+    private static final List<String> TABLES = List.of("video_completion", "video_watch_events");
+
+    private static final Map<String, String> EMAIL_INDEXES = Map.of(
+            "video_watch_events", "idx_watch_events_email",
+            "video_completion", "idx_video_completion_email");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ParticipantDirectory participantDirectory;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "participant-id-migration");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ParticipantIdMigrationService(JdbcTemplate jdbcTemplate,
+                                         ParticipantDirectory participantDirectory,
+                                         @Value("${app.migrations.participant-id.chunk-size:10000}") int chunkSize,
+                                         @Value("${app.migrations.participant-id.pause-ms:100}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.participantDirectory = participantDirectory;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.submit(() -> {
+            try {
+                migrate();
+            } catch (InterruptedException e) {
+                System.out.println("Participant id backfill stopped; it resumes on the next start");
+            } catch (RuntimeException e) {
+                System.err.println("Participant id backfill failed, retried on the next start: " + e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public void migrate() throws InterruptedException {
+        boolean registered = false;
+        for (String table : TABLES) {
+            Map<String, Object> range = jdbcTemplate.queryForMap(
+                    "SELECT MIN(id) AS first_id, MAX(id) AS last_id FROM " + table + " WHERE participant_id IS NULL");
+            if (range.get("first_id") == null) {
+                dropEmailIndex(table);
+                continue;
+            }
+            long firstId = ((Number) range.get("first_id")).longValue();
+            long lastId = ((Number) range.get("last_id")).longValue();
+
+            long updated = 0;
+            for (long start = firstId; start <= lastId; start += chunkSize) {
+                long end = start + chunkSize - 1;
+                int added = jdbcTemplate.update("INSERT IGNORE INTO participants (email) SELECT DISTINCT email FROM "
+                        + table + " WHERE participant_id IS NULL AND id BETWEEN ? AND ?", start, end);
+                registered |= added > 0;
+                updated += jdbcTemplate.update("UPDATE " + table + " t JOIN participants p ON p.email = t.email "
+                        + "SET t.participant_id = p.id WHERE t.participant_id IS NULL AND t.id BETWEEN ? AND ?",
+                        start, end);
+                Thread.sleep(pauseMillis);
+            }
+            System.out.println("Backfilled participant_id on " + updated + " row(s) of " + table);
+
+            // Instances still on the old build may have written more rows meanwhile; they get the next pass
+            Integer remaining = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE participant_id IS NULL", Integer.class);
+            if (remaining != null && remaining == 0) {
+                dropEmailIndex(table);
+            }
+        }
+        if (registered) {
+            participantDirectory.load();
+        }
+    }
+
+    private void dropEmailIndex(String table) {
+        String index = EMAIL_INDEXES.get(table);
+        Integer present = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table, index);
+        if (present != null && present > 0) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP INDEX " + index);
+            System.out.println("Dropped index " + index + " on " + table);
+        }
+    }
+}
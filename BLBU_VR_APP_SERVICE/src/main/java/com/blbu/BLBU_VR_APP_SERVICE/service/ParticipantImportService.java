@@ -0,0 +1,306 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.util.Uuids;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Data;
+
+/**
+ * Enrolls a whole cohort of VR app participants at once, from CSV or JSON.
+ * Every row is validated before anything is written; emails already registered are found with a
+ * single query and skipped. Passwords are hashed in parallel on the hashing pool, then the
+ * {@code users} and {@code vr_app_users} rows are inserted with JDBC batches in one transaction.
+ * The result lists what happened to each row.
+ */
+@Service
+public class ParticipantImportService {
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, email, password, role) VALUES (?, ?, ?, 'user')";
+
+    private static final String INSERT_VR_USER_SQL =
+            "INSERT INTO vr_app_users (id, email, first_name, last_name, active, current_day) VALUES (?, ?, ?, ?, TRUE, 1)";
+
+    // BCrypt ignores everything past 72 bytes, so longer passwords are refused rather than silently truncated
+    private static final int MAX_PASSWORD_BYTES = 72;
+
+    /**
+     * One participant to enroll, as given in the file.
+     */
+    @Data
+    public static class ImportRow {
+        private String email;
+        private String firstName;
+        private String lastName;
+        private String password;
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordHashingService passwordHashingService;
+    private final VrAppUserService vrAppUserService;
+    private final ObjectMapper objectMapper;
+    private final int maxRows;
+
+    public ParticipantImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    PasswordHashingService passwordHashingService,
+                                    VrAppUserService vrAppUserService,
+                                    ObjectMapper objectMapper,
+                                    @Value("${users.import.max-rows:5000}") int maxRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordHashingService = passwordHashingService;
+        this.vrAppUserService = vrAppUserService;
+        this.objectMapper = objectMapper;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Reads rows from a CSV with a header line naming the columns email, firstName, lastName and password
+     * (case and separators in the header are ignored, so "first_name" works too).
+     */
+    public List<ImportRow> parseCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("email", "firstname", "lastname", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+
+        List<ImportRow> rows = new ArrayList<>();
+        List<String> record;
+        while ((record = readCsvRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            ImportRow row = new ImportRow();
+            row.setEmail(field(record, columns.get("email")));
+            row.setFirstName(field(record, columns.get("firstname")));
+            row.setLastName(field(record, columns.get("lastname")));
+            row.setPassword(field(record, columns.get("password")));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Reads rows from a JSON array of objects with email, firstName, lastName and password.
+     */
+    public List<ImportRow> parseJson(InputStream input) throws IOException {
+        return objectMapper.readValue(input, new TypeReference<List<ImportRow>>() {});
+    }
+
+    /**
+     * Validates and enrolls the rows. If any row is invalid nothing is written and the result says why;
+     * otherwise new participants are created and already registered emails are reported as skipped.
+     * Throws DuplicateKeyException if an email was registered by someone else while the import ran.
+     */
+    public Map<String, Object> importParticipants(List<ImportRow> rows) throws InterruptedException {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("No participants to import");
+        }
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("An import is limited to " + maxRows + " participants");
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        int invalid = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            trim(row);
+            String error = validate(row, seen);
+            results.add(result(i + 1, row.getEmail(), error == null ? "valid" : "invalid", error));
+            if (error != null) {
+                invalid++;
+            }
+        }
+        if (invalid > 0) {
+            for (Map<String, Object> result : results) {
+                if ("valid".equals(result.get("status"))) {
+                    result.put("status", "not-imported");
+                }
+            }
+            return summary(false, 0, 0, invalid, results);
+        }
+
+        // MySQL's default collation compares emails case-insensitively, so the dedupe does too
+        Set<String> existing = new HashSet<>();
+        List<String> emails = rows.stream().map(ImportRow::getEmail).toList();
+        jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE email IN (:emails) UNION SELECT email FROM vr_app_users WHERE email IN (:emails)",
+                Map.of("emails", emails), String.class)
+                .forEach(email -> existing.add(email.toLowerCase(Locale.ROOT)));
+
+        List<ImportRow> toCreate = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            if (existing.contains(row.getEmail().toLowerCase(Locale.ROOT))) {
+                results.get(i).put("status", "skipped");
+                results.get(i).put("error", "Email already in use");
+            } else {
+                toCreate.add(row);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            List<String> hashes = passwordHashingService.hashAll(toCreate.stream().map(ImportRow::getPassword).toList());
+            List<Object[]> users = new ArrayList<>(toCreate.size());
+            List<Object[]> vrUsers = new ArrayList<>(toCreate.size());
+            for (int i = 0; i < toCreate.size(); i++) {
+                ImportRow row = toCreate.get(i);
+                users.add(new Object[] {Uuids.toBytes(Uuids.v7()), row.getEmail(), hashes.get(i)});
+                vrUsers.add(new Object[] {Uuids.toBytes(Uuids.v7()), row.getEmail(), row.getFirstName(), row.getLastName()});
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_USER_SQL, users);
+                jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_VR_USER_SQL, vrUsers);
+            });
+            vrAppUserService.getVrUsersVersion().bump();
+        }
+
+        for (Map<String, Object> result : results) {
+            if ("valid".equals(result.get("status"))) {
+                result.put("status", "created");
+            }
+        }
+        System.out.println("Imported " + toCreate.size() + " participant(s), skipped " + (rows.size() - toCreate.size()) + " already registered");
+        return summary(true, toCreate.size(), rows.size() - toCreate.size(), 0, results);
+    }
+
+    private static String validate(ImportRow row, Set<String> seen) {
+        String email = row.getEmail();
+        if (email == null || email.isEmpty()) {
+            return "Email is required";
+        }
+        if (!email.matches("[^@\\s]+@[^@\\s]+\\.[^@\\s]+") || email.length() > 255) {
+            return "Invalid email: " + email;
+        }
+        if (!seen.add(email.toLowerCase(Locale.ROOT))) {
+            return "Email appears more than once in this import";
+        }
+        if (row.getFirstName() == null || row.getFirstName().isEmpty()) {
+            return "First name is required";
+        }
+        if (row.getLastName() == null || row.getLastName().isEmpty()) {
+            return "Last name is required";
+        }
+        if (row.getPassword() == null || row.getPassword().isEmpty()) {
+            return "Password is required";
+        }
+        if (row.getPassword().getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            return "Password is longer than " + MAX_PASSWORD_BYTES + " bytes";
+        }
+        return null;
+    }
+
+    private static void trim(ImportRow row) {
+        row.setEmail(row.getEmail() == null ? null : row.getEmail().trim());
+        row.setFirstName(row.getFirstName() == null ? null : row.getFirstName().trim());
+        row.setLastName(row.getLastName() == null ? null : row.getLastName().trim());
+    }
+
+    private static Map<String, Object> result(int row, String email, String status, String error) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("row", row);
+        result.put("email", email);
+        result.put("status", status);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> summary(boolean imported, int created, int skipped, int invalid,
+                                               List<Map<String, Object>> rows) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("imported", imported);
+        summary.put("created", created);
+        summary.put("skipped", skipped);
+        summary.put("invalid", invalid);
+        summary.put("rows", rows);
+        return summary;
+    }
+
+    private static String field(List<String> record, int index) {
+        return index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * One CSV record (RFC 4180: quoted fields may contain commas, doubled quotes and line breaks), or null at end of input.
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        // Excel adds a byte order mark to UTF-8 exports
+        if (!fields.isEmpty() && fields.get(0).startsWith("\uFEFF")) {
+            fields.set(0, fields.get(0).substring(1));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,490 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoMetadataRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaWriter;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ParallelGzip;
+import com.blbu.BLBU_VR_APP_SERVICE.util.PdfFonts;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Renders one progress PDF per active participant (activity calendar, streak, watch coverage,
+ * violations) for the period ending on a given day.
+ * Participants render in parallel on a bounded pool, each document backed by a scratch file. Every
+ * finished PDF is uploaded to its own object and appended to a zip bundle that is itself streamed
+ * to storage, so no more than one PDF per worker exists at a time and none is held on the heap.
+ * Activity comes from the daily rollups, so the whole batch needs one small query per day.
+ */
+@Service
+public class ParticipantReportService {
+
+    private static final int MAX_FINISHED_BATCHES = 30;
+    private static final int IO_BUFFER_SIZE = 256 * 1024;
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("EEE MMM d");
+
+    // Page template (points)
+    private static final float MARGIN = 50;
+    private static final float PAGE_TOP = 750;
+    private static final float CELL_WIDTH = 70;
+    private static final float CELL_HEIGHT = 32;
+    private static final float ROW_HEIGHT = 16;
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Progress of one batch, exposed to the admin UI via {@link #toMap()}.
+     */
+    public static class ParticipantBatch {
+        private final String id = UUID.randomUUID().toString();
+        private final LocalDate endDate;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger rendered = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile Status status = Status.QUEUED;
+        private volatile int totalParticipants;
+        private volatile String bundleKey;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        ParticipantBatch(LocalDate endDate) {
+            this.endDate = endDate;
+        }
+
+        public boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("batchId", id);
+            map.put("date", endDate.toString());
+            map.put("status", status.name());
+            map.put("totalParticipants", totalParticipants);
+            map.put("rendered", rendered.get());
+            map.put("failed", failed.get());
+            map.put("bundleKey", bundleKey);
+            map.put("createdAt", createdAt.toString());
+            map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            map.put("error", error);
+            return map;
+        }
+    }
+
+    /**
+     * One participant's activity on one day, summed over videos.
+     */
+    private static class DayActivity {
+        long completions;
+        long violations;
+        double watchSeconds;
+        // Watched seconds capped at each video's length, and the total length of those videos
+        double coveredSeconds;
+        double durationSeconds;
+    }
+
+    private final VRAppUserRepository vrAppUserRepository;
+    private final VideoMetadataRepository videoRepository;
+    private final VrAppUserService vrAppUserService;
+    private final RollupService rollupService;
+    private final MediaStore mediaStore;
+    private final String folder;
+    private final int periodDays;
+    private final long pdfMaxMainMemoryBytes;
+    private final ExecutorService renderers;
+
+    // Batches are coordinated one at a time; the rendering itself fans out onto the renderers
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "participant-reports");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Insertion-ordered so the oldest finished batches are dropped first
+    private final Map<String, ParticipantBatch> batches = new LinkedHashMap<>();
+
+    public ParticipantReportService(VRAppUserRepository vrAppUserRepository,
+                                    VideoMetadataRepository videoRepository,
+                                    VrAppUserService vrAppUserService,
+                                    RollupService rollupService,
+                                    MediaStore mediaStore,
+                                    @Value("${report.participant.folder:participant-reports}") String folder,
+                                    @Value("${report.participant.period-days:28}") int periodDays,
+                                    @Value("${report.participant.threads:4}") int threads,
+                                    @Value("${report.pdf.max-main-memory-bytes:1048576}") long pdfMaxMainMemoryBytes) {
+        this.vrAppUserRepository = vrAppUserRepository;
+        this.videoRepository = videoRepository;
+        this.vrAppUserService = vrAppUserService;
+        this.rollupService = rollupService;
+        this.mediaStore = mediaStore;
+        this.folder = folder;
+        this.periodDays = periodDays;
+        this.pdfMaxMainMemoryBytes = pdfMaxMainMemoryBytes;
+        this.renderers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "participant-report-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        renderers.shutdownNow();
+    }
+
+    /**
+     * Starts rendering every active participant's report for the period ending on {@code endDate},
+     * or returns the unfinished batch for that day.
+     */
+    public synchronized ParticipantBatch startBatch(LocalDate endDate) {
+        for (ParticipantBatch existing : batches.values()) {
+            if (!existing.isFinished() && existing.endDate.equals(endDate)) {
+                return existing;
+            }
+        }
+        ParticipantBatch batch = new ParticipantBatch(endDate);
+        batches.put(batch.id, batch);
+        trimFinishedBatches();
+        coordinator.execute(() -> run(batch));
+        return batch;
+    }
+
+    public synchronized Optional<ParticipantBatch> getBatch(String batchId) {
+        return Optional.ofNullable(batches.get(batchId));
+    }
+
+    public synchronized List<Map<String, Object>> listBatches() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        batches.values().forEach(batch -> result.add(batch.toMap()));
+        return result;
+    }
+
+    /**
+     * The zip bundle for a day's batch, if one has been stored.
+     */
+    public Optional<MediaObject> findBundle(LocalDate endDate) {
+        return mediaStore.stat(bundleKey(endDate));
+    }
+
+    private void run(ParticipantBatch batch) {
+        batch.status = Status.RUNNING;
+        LocalDate from = batch.endDate.minusDays(periodDays - 1L);
+        try {
+            List<VRAppUser> participants = vrAppUserRepository.findByActiveTrue();
+            batch.totalParticipants = participants.size();
+            Map<String, TreeMap<LocalDate, DayActivity>> activity = loadActivity(from, batch.endDate);
+
+            String bundleKey = bundleKey(batch.endDate);
+            try (MediaWriter writer = mediaStore.openWriter(bundleKey, "application/zip")) {
+                ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(writer), IO_BUFFER_SIZE));
+                List<CompletableFuture<Void>> renders = new ArrayList<>();
+                Set<String> filenames = new HashSet<>();
+                for (VRAppUser participant : participants) {
+                    TreeMap<LocalDate, DayActivity> days = activity.getOrDefault(participant.getEmail(), new TreeMap<>());
+                    String filename = uniqueFilename(participant.getEmail(), filenames);
+                    renders.add(CompletableFuture.runAsync(() -> renderParticipant(batch, participant, filename, from, days, zip), renderers));
+                }
+                CompletableFuture.allOf(renders.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+                // finish() writes the central directory without closing the writer underneath
+                zip.finish();
+                zip.flush();
+                writer.commit();
+            }
+            batch.bundleKey = bundleKey;
+            batch.status = batch.failed.get() > 0 ? Status.FAILED : Status.COMPLETED;
+            if (batch.failed.get() > 0) {
+                batch.error = batch.failed.get() + " participant report(s) failed";
+            }
+            System.out.println("Participant reports for " + batch.endDate + ": " + batch.rendered.get()
+                    + " rendered, " + batch.failed.get() + " failed");
+        } catch (Exception e) {
+            batch.status = Status.FAILED;
+            batch.error = e.getMessage();
+            System.err.println("Participant report batch for " + batch.endDate + " failed: " + e.getMessage());
+        } finally {
+            batch.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Per participant, per day activity over [from, to], from the rollups.
+     */
+    private Map<String, TreeMap<LocalDate, DayActivity>> loadActivity(LocalDate from, LocalDate to) {
+        Map<Long, Double> durations = new HashMap<>();
+        for (VideoMetadata video : videoRepository.findAll()) {
+            if (video.getDurationSeconds() != null && video.getDurationSeconds() > 0) {
+                durations.put(video.getId(), video.getDurationSeconds());
+            }
+        }
+
+        Map<String, TreeMap<LocalDate, DayActivity>> activity = new HashMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate date = day;
+            rollupService.getDay(date).forEach((key, totals) -> {
+                DayActivity dayActivity = activity.computeIfAbsent(key.email(), email -> new TreeMap<>())
+                        .computeIfAbsent(date, d -> new DayActivity());
+                dayActivity.completions += totals.getCompletions();
+                dayActivity.violations += totals.getViolations();
+                dayActivity.watchSeconds += totals.getWatchSeconds();
+                Double duration = durations.get(key.videoId());
+                if (duration != null) {
+                    dayActivity.coveredSeconds += Math.min(totals.getWatchSeconds(), duration);
+                    dayActivity.durationSeconds += duration;
+                }
+            });
+        }
+        return activity;
+    }
+
+    /**
+     * PDF content streams are already deflated, so deflating them again in the bundle costs CPU inside
+     * the zip lock for almost no saving. Those go in STORED, which needs the size and CRC up front;
+     * they are computed here, outside the lock.
+     */
+    private static ZipEntry bundleEntry(String filename, Path file) throws IOException {
+        ZipEntry entry = new ZipEntry(filename);
+        if (!ParallelGzip.isAlreadyCompressed(filename)) {
+            return entry;
+        }
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(channel.size());
+            entry.setCompressedSize(channel.size());
+        }
+        entry.setCrc(crc.getValue());
+        return entry;
+    }
+
+    private void renderParticipant(ParticipantBatch batch, VRAppUser participant, String filename, LocalDate from,
+                                   TreeMap<LocalDate, DayActivity> days, ZipOutputStream zip) {
+        Path temp = null;
+        try {
+            // As of the end of the reported period, so re-running an old batch gives the same report
+            int streak = vrAppUserService.calculateStreak(participant.getEmail(), batch.endDate);
+            temp = Files.createTempFile("participant-report-", ".pdf");
+            try (PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(pdfMaxMainMemoryBytes).streamCache)) {
+                renderPages(document, participant, from, batch.endDate, streak, days);
+                document.save(temp.toFile());
+            }
+
+            String key = folder + "/" + batch.endDate + "/" + filename;
+            try (FileChannel source = FileChannel.open(temp, StandardOpenOption.READ);
+                 MediaWriter target = mediaStore.openWriter(key, "application/pdf")) {
+                MediaStore.copy(source, target, Long.MAX_VALUE, IO_BUFFER_SIZE);
+                target.commit();
+            }
+            ZipEntry entry = bundleEntry(filename, temp);
+            synchronized (zip) {
+                zip.putNextEntry(entry);
+                Files.copy(temp, zip);
+                zip.closeEntry();
+            }
+            batch.rendered.incrementAndGet();
+        } catch (Exception e) {
+            batch.failed.incrementAndGet();
+            System.err.println("Failed to render participant report for " + participant.getEmail() + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    System.err.println("Failed to delete " + temp + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void renderPages(PDDocument document, VRAppUser participant, LocalDate from, LocalDate to,
+                             int streak, TreeMap<LocalDate, DayActivity> days) throws IOException {
+        PdfFonts fonts = PdfFonts.forCurrentThread();
+        PDType1Font helvetica = fonts.regular();
+        PDType1Font helveticaBold = fonts.bold();
+
+        long daysCompleted = days.values().stream().filter(d -> d.completions > 0).count();
+        long violations = days.values().stream().mapToLong(d -> d.violations).sum();
+        double watchMinutes = days.values().stream().mapToDouble(d -> d.watchSeconds).sum() / 60.0;
+        double covered = days.values().stream().mapToDouble(d -> d.coveredSeconds).sum();
+        double duration = days.values().stream().mapToDouble(d -> d.durationSeconds).sum();
+
+        PDPage page = new PDPage();
+        document.addPage(page);
+        PDPageContentStream content = new PDPageContentStream(document, page);
+        float y = PAGE_TOP;
+
+        text(content, helveticaBold, 20, MARGIN, y, "Participant Progress Report");
+        y -= 26;
+        text(content, helvetica, 12, MARGIN, y, participant.getFirstName() + " " + participant.getLastName()
+                + " (" + participant.getEmail() + ")");
+        y -= 18;
+        text(content, helvetica, 12, MARGIN, y, "Period: " + from + " to " + to
+                + " | Program day: " + participant.getCurrentDay());
+        y -= 18;
+        text(content, helvetica, 12, MARGIN, y, String.format(
+                "Current streak: %d | Days completed: %d of %d | Watch time: %.0f min | Coverage: %s | Violations: %d",
+                streak, daysCompleted, periodDays, watchMinutes, percent(covered, duration), violations));
+        y -= 36;
+
+        // Calendar: one row per week, Monday first
+        text(content, helveticaBold, 12, MARGIN, y, "Activity calendar");
+        y -= 18;
+        String[] weekdays = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+        for (int i = 0; i < 7; i++) {
+            text(content, helveticaBold, 9, MARGIN + i * CELL_WIDTH + 4, y, weekdays[i]);
+        }
+        y -= 6;
+        LocalDate weekStart = from.minusDays(from.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+        for (LocalDate week = weekStart; !week.isAfter(to); week = week.plusWeeks(1)) {
+            y -= CELL_HEIGHT;
+            for (int i = 0; i < 7; i++) {
+                LocalDate day = week.plusDays(i);
+                if (day.isBefore(from) || day.isAfter(to)) {
+                    continue;
+                }
+                DayActivity activity = days.get(day);
+                float x = MARGIN + i * CELL_WIDTH;
+                if (activity == null || activity.completions == 0) {
+                    content.setNonStrokingColor(0.92f, 0.92f, 0.92f);
+                } else if (activity.violations > 0) {
+                    content.setNonStrokingColor(1.0f, 0.76f, 0.03f);
+                } else {
+                    content.setNonStrokingColor(0.30f, 0.69f, 0.31f);
+                }
+                content.addRect(x, y, CELL_WIDTH - 4, CELL_HEIGHT - 4);
+                content.fill();
+                content.setNonStrokingColor(0f, 0f, 0f);
+                text(content, helvetica, 9, x + 4, y + CELL_HEIGHT - 15, String.valueOf(day.getDayOfMonth()));
+            }
+        }
+        y -= 16;
+        text(content, helvetica, 8, MARGIN, y, "Green: completed | Amber: completed with violations | Grey: not completed");
+        y -= 30;
+
+        // Daily detail for days with any activity
+        text(content, helveticaBold, 12, MARGIN, y, "Daily activity");
+        y -= 18;
+        float[] columns = {MARGIN, MARGIN + 110, MARGIN + 200, MARGIN + 300, MARGIN + 390};
+        String[] headers = {"Day", "Completed", "Watch (min)", "Coverage", "Violations"};
+        for (int i = 0; i < columns.length; i++) {
+            text(content, helveticaBold, 10, columns[i], y, headers[i]);
+        }
+        y -= ROW_HEIGHT;
+
+        if (days.isEmpty()) {
+            text(content, helvetica, 10, MARGIN, y, "No activity in this period.");
+        }
+        for (Map.Entry<LocalDate, DayActivity> entry : days.entrySet()) {
+            if (y < MARGIN) {
+                content.close();
+                page = new PDPage();
+                document.addPage(page);
+                content = new PDPageContentStream(document, page);
+                y = PAGE_TOP;
+            }
+            DayActivity activity = entry.getValue();
+            text(content, helvetica, 10, columns[0], y, entry.getKey().format(DAY_LABEL));
+            text(content, helvetica, 10, columns[1], y, String.valueOf(activity.completions));
+            text(content, helvetica, 10, columns[2], y, String.format("%.1f", activity.watchSeconds / 60.0));
+            text(content, helvetica, 10, columns[3], y, percent(activity.coveredSeconds, activity.durationSeconds));
+            text(content, helvetica, 10, columns[4], y, String.valueOf(activity.violations));
+            y -= ROW_HEIGHT;
+        }
+        content.close();
+    }
+
+    private static void text(PDPageContentStream content, PDType1Font font, float size, float x, float y,
+                             String text) throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(PdfFonts.printable(text));
+        content.endText();
+    }
+
+    private static String percent(double part, double whole) {
+        return whole > 0 ? Math.round(part * 100 / whole) + "%" : "N/A";
+    }
+
+    private String bundleKey(LocalDate endDate) {
+        return folder + "/" + endDate + "/participant-reports-" + endDate + ".zip";
+    }
+
+    private static String safeName(String email) {
+        return email.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * File name for a participant's PDF, suffixed with -2, -3... when another email in the batch
+     * maps to the same safe name (zip entries and store keys must not collide).
+     */
+    private static String uniqueFilename(String email, Set<String> used) {
+        String base = safeName(email);
+        String name = base;
+        for (int n = 2; !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+            name = base + "-" + n;
+        }
+        return name + ".pdf";
+    }
+
+    private void trimFinishedBatches() {
+        long finished = batches.values().stream().filter(ParticipantBatch::isFinished).count();
+        Iterator<ParticipantBatch> iterator = batches.values().iterator();
+        while (finished > MAX_FINISHED_BATCHES && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt off the request threads on a small bounded pool.
+ * When the queue is full a hash is rejected immediately (RejectedExecutionException) instead of
+ * waiting, so a login burst degrades into fast 503s rather than stalling every endpoint.
+ * The cost factor is picked at startup as the highest one that hashes within the target latency
+ * on this machine; stored hashes with a lower cost are upgraded after a successful login.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 14;
+
+    private final ThreadPoolExecutor executor;
+    private final BCryptPasswordEncoder encoder;
+    private final int cost;
+    private final int bulkInFlight;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final LongAdder upgraded = new LongAdder();
+
+    public PasswordHashingService(@Value("${auth.hash.threads:2}") int threads,
+                                  @Value("${auth.hash.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hash.target-ms:250}") long targetMillis) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        // Bulk hashing never holds more than half the queue, leaving room for logins
+        this.bulkInFlight = Math.max(1, queueCapacity / 2);
+        this.cost = chooseCost(targetMillis);
+        this.encoder = new BCryptPasswordEncoder(cost);
+        System.out.println("Password hashing: BCrypt cost " + cost + " (target " + targetMillis + " ms), "
+                + threads + " thread(s), queue " + queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The encoder at the chosen cost, for callers that must hash inline (e.g. the PasswordEncoder bean).
+     */
+    public BCryptPasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encodedPassword != null && encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a batch in parallel on the pool and waits for all of them; results are in input order.
+     * At most half the queue is used at a time, and a submission rejected because logins filled the
+     * queue is retried after a short pause rather than failing the batch.
+     */
+    public List<String> hashAll(List<String> rawPasswords) throws InterruptedException {
+        Semaphore permits = new Semaphore(bulkInFlight);
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            permits.acquire();
+            CompletableFuture<String> hash = hash(rawPassword);
+            while (isRejected(hash)) {
+                Thread.sleep(50);
+                hash = hash(rawPassword);
+            }
+            hash.whenComplete((ignored, error) -> permits.release());
+            hashes.add(hash);
+        }
+        List<String> result = new ArrayList<>(hashes.size());
+        for (CompletableFuture<String> hash : hashes) {
+            result.add(hash.join());
+        }
+        return result;
+    }
+
+    /**
+     * True when a stored hash was made with a lower cost than the current one.
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return encodedPassword != null && encoder.upgradeEncoding(encodedPassword);
+    }
+
+    public void recordUpgrade() {
+        upgraded.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        long count = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cost", cost);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("upgradedHashes", upgraded.sum());
+        stats.put("avgHashMs", count > 0 ? hashNanos.sum() / count / 1_000_000.0 : 0);
+        stats.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        stats.put("avgQueueWaitMs", count > 0 ? queueWaitNanos.sum() / count / 1_000_000.0 : 0);
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                try {
+                    result.complete(work.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    long finished = System.nanoTime();
+                    record(started - submitted, finished - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Rejection completes the future before submit returns, so this never waits
+    private static boolean isRejected(CompletableFuture<?> future) {
+        try {
+            future.getNow(null);
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof RejectedExecutionException;
+        }
+    }
+
+    private void record(long waitNanos, long runNanos) {
+        completed.increment();
+        queueWaitNanos.add(waitNanos);
+        hashNanos.add(runNanos);
+        maxQueueWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        maxHashNanos.accumulateAndGet(runNanos, Math::max);
+    }
+
+    /**
+     * Highest cost whose hash takes no longer than the target, never below MIN_COST.
+     * Each step doubles the work, so the benchmark stops at the first cost over the target.
+     */
+    private static int chooseCost(long targetMillis) {
+        new BCryptPasswordEncoder(MIN_COST).encode("warm-up");
+        int chosen = MIN_COST;
+        for (int candidate = MIN_COST; candidate <= MAX_COST; candidate++) {
+            BCryptPasswordEncoder probe = new BCryptPasswordEncoder(candidate);
+            long started = System.nanoTime();
+            probe.encode("benchmark-password");
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        return chosen;
+    }
+}
@@ -1,25 +1,35 @@
 package com.blbu.BLBU_VR_APP_SERVICE.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.Storage;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaWriter;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MemoryObjectCache;
+import com.blbu.BLBU_VR_APP_SERVICE.util.PdfFonts;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ResourceVersion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @Service
 public class PdfReportService {
@@ -28,36 +38,86 @@ public class PdfReportService {
     private DailyReportService dailyReportService;
 
     @Autowired
-    private Storage storage;
-
-    @Value("${gcs.bucket-name:vr_therapy_videos}")
-    private String bucketName;
+    private MediaStore mediaStore;
 
     @Value("${gcs.reports-folder:reports}")
     private String reportsFolder;
 
+    // Page content beyond this spills to a scratch file, so large reports don't grow the heap
+    @Value("${report.pdf.max-main-memory-bytes:1048576}")
+    private long pdfMaxMainMemoryBytes;
+
+    @Value("${report.download.cache-max-bytes:33554432}")
+    private long downloadCacheMaxBytes;
+
+    @Value("${report.download.cache-max-entry-bytes:4194304}")
+    private long downloadCacheMaxEntryBytes;
+
+    private MemoryObjectCache downloadCache;
+
+    @Autowired
+    private ReportCatalogService reportCatalogService;
+
+    // Changes whenever the saved-report list does, so it can be revalidated cheaply
+    public ResourceVersion getReportsVersion() {
+        return reportCatalogService.getVersion();
+    }
+
+    @PostConstruct
+    void initDownloadCache() {
+        downloadCache = new MemoryObjectCache(mediaStore, downloadCacheMaxBytes, downloadCacheMaxEntryBytes);
+    }
+
+    /**
+     * Renders and stores the PDF for a day. For a closed day this also persists the report snapshot,
+     * so the PDF and later /daily requests are built from the same data.
+     */
     public String generateAndSaveDailyReport(LocalDate date) throws IOException {
         // Get report data
         Map<String, Object> reportData = dailyReportService.getDailyReport(date);
 
-        // Generate PDF
-        byte[] pdfBytes = generatePdf(reportData);
-
-        // Save to GCS
         String filename = String.format("daily-report-%s.pdf", date.format(DateTimeFormatter.ISO_DATE));
         String gcsPath = reportsFolder + "/" + filename;
 
-        BlobId blobId = BlobId.of(bucketName, gcsPath);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType("application/pdf")
-                .build();
-        storage.create(blobInfo, pdfBytes);
+        // Render and save to a scratch file first; the store is only written once the PDF is complete,
+        // so a failed render or save never replaces a stored report
+        Path temp = Files.createTempFile("daily-report-", ".pdf");
+        try {
+            try (PDDocument document = generatePdf(reportData)) {
+                document.save(temp.toFile());
+            }
+            try (FileChannel source = FileChannel.open(temp, StandardOpenOption.READ);
+                 MediaWriter writer = mediaStore.openWriter(gcsPath, "application/pdf")) {
+                MediaStore.copy(source, writer, Long.MAX_VALUE, 64 * 1024);
+                writer.commit();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        downloadCache.invalidate(gcsPath);
+        mediaStore.stat(gcsPath).ifPresent(reportCatalogService::record);
 
         return filename;
     }
 
-    private byte[] generatePdf(Map<String, Object> reportData) throws IOException {
-        PDDocument document = new PDDocument();
+    /**
+     * Lays out the report into a document backed by a scratch file. The caller saves and closes it.
+     */
+    private PDDocument generatePdf(Map<String, Object> reportData) throws IOException {
+        PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(pdfMaxMainMemoryBytes).streamCache);
+        try {
+            renderPages(document, reportData);
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+        return document;
+    }
+
+    private void renderPages(PDDocument document, Map<String, Object> reportData) throws IOException {
+        PdfFonts fonts = PdfFonts.forCurrentThread();
+        PDType1Font helvetica = fonts.regular();
+        PDType1Font helveticaBold = fonts.bold();
         PDPage page = new PDPage();
         document.addPage(page);
 
@@ -68,9 +128,6 @@ public class PdfReportService {
         float lineHeight = 20;
         float tableYStart = yPosition - 100;
 
-        PDType1Font helveticaBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-        PDType1Font helvetica = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-
         // Title
         contentStream.beginText();
         contentStream.setFont(helveticaBold, 20);
@@ -139,6 +196,7 @@ public class PdfReportService {
                 page = new PDPage();
                 document.addPage(page);
                 contentStream = new PDPageContentStream(document, page);
+                contentStream.setFont(helvetica, 9);
                 yPosition = 750;
             }
 
@@ -187,52 +245,34 @@ public class PdfReportService {
         }
 
         contentStream.close();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
 
-    public List<Map<String, Object>> listSavedReports() {
-        // List all PDF files in the reports folder
-        List<Map<String, Object>> reports = new java.util.ArrayList<>();
-        
-        try {
-            storage.list(bucketName, Storage.BlobListOption.prefix(reportsFolder + "/"))
-                    .iterateAll()
-                    .forEach(blob -> {
-                        Map<String, Object> report = new java.util.HashMap<>();
-                        report.put("filename", blob.getName().substring(reportsFolder.length() + 1));
-                        report.put("date", extractDateFromFilename(blob.getName()));
-                        report.put("createdAt", blob.getUpdateTime() != null ? blob.getUpdateTime() : blob.getCreateTime());
-                        reports.add(report);
-                    });
-        } catch (Exception e) {
-            System.err.println("Error listing reports: " + e.getMessage());
-        }
-
-        return reports;
+    /**
+     * Saved reports from the catalog, newest first, optionally limited to [from, to] and paged ({@code size} 0 = all).
+     */
+    public List<Map<String, Object>> listSavedReports(LocalDate from, LocalDate to, int page, int size) {
+        return reportCatalogService.list(from, to, page, size);
     }
 
-    public byte[] downloadReport(String filename) throws IOException {
-        String gcsPath = reportsFolder + "/" + filename;
-        BlobId blobId = BlobId.of(bucketName, gcsPath);
-        byte[] content = storage.readAllBytes(blobId);
-        return content;
+    public int countSavedReports(LocalDate from, LocalDate to) {
+        return reportCatalogService.count(from, to);
     }
 
-    private String extractDateFromFilename(String filename) {
-        // Extract date from filename like "daily-report-2024-01-15.pdf"
-        try {
-            String datePart = filename.substring(filename.lastIndexOf("/") + 1)
-                    .replace("daily-report-", "")
-                    .replace(".pdf", "");
-            return datePart;
-        } catch (Exception e) {
-            return "Unknown";
+    /**
+     * Metadata for a saved report. Empty if there is no such report.
+     */
+    public Optional<MediaObject> findReport(String filename) {
+        if (filename.isBlank() || filename.contains("/") || filename.contains("\\") || filename.contains("..")) {
+            throw new IllegalArgumentException("Invalid report filename: " + filename);
         }
+        return mediaStore.stat(reportsFolder + "/" + filename);
+    }
+
+    /**
+     * Streams a saved report with ETag/304 and Range support; recently downloaded reports are served from memory.
+     */
+    public void serveReport(MediaObject report, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        downloadCache.serve(report, request, response);
     }
 }
 
@@ -0,0 +1,483 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.PurgeJob;
+import com.blbu.BLBU_VR_APP_SERVICE.model.User;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.ParticipantRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.PurgeJobRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.TimeSpan;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.UserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoMetadataRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background deletion of videos and users.
+ * Dependent watch events and completions are deleted in small batches, each in its own short
+ * transaction with a pause in between, so a large purge never holds locks that stall live event
+ * ingestion. The stored video object is only removed after the database work has committed.
+ * Jobs are persisted as they progress; every step is idempotent, so jobs cut short by a restart are
+ * simply run again on startup.
+ */
+@Service
+public class PurgeService {
+
+    private final PurgeJobRepository jobRepository;
+    private final VideoMetadataRepository videoRepository;
+    private final VideoWatchEventRepository watchEventRepository;
+    private final VideoCompletionRepository completionRepository;
+    private final VRAppUserRepository vrAppUserRepository;
+    private final UserRepository userRepository;
+    private final ParticipantRepository participantRepository;
+    private final ParticipantDirectory participantDirectory;
+    private final TelemetryWriter telemetryWriter;
+    private final VideoService videoService;
+    private final VrAppUserService vrAppUserService;
+    private final ReportSnapshotService reportSnapshotService;
+    private final RollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    // Purges run one at a time; they are throughput-insensitive and should stay out of the way of live traffic
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Unfinished jobs by type and target; each instance is only mutated and saved while holding its own lock
+    private final Map<String, PurgeJob> activeJobs = new ConcurrentHashMap<>();
+
+    public PurgeService(PurgeJobRepository jobRepository,
+                        VideoMetadataRepository videoRepository,
+                        VideoWatchEventRepository watchEventRepository,
+                        VideoCompletionRepository completionRepository,
+                        VRAppUserRepository vrAppUserRepository,
+                        UserRepository userRepository,
+                        ParticipantRepository participantRepository,
+                        ParticipantDirectory participantDirectory,
+                        TelemetryWriter telemetryWriter,
+                        VideoService videoService,
+                        VrAppUserService vrAppUserService,
+                        ReportSnapshotService reportSnapshotService,
+                        RollupService rollupService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${purge.batch-size:1000}") int batchSize,
+                        @Value("${purge.pause-ms:100}") long pauseMillis) {
+        this.jobRepository = jobRepository;
+        this.videoRepository = videoRepository;
+        this.watchEventRepository = watchEventRepository;
+        this.completionRepository = completionRepository;
+        this.vrAppUserRepository = vrAppUserRepository;
+        this.userRepository = userRepository;
+        this.participantRepository = participantRepository;
+        this.participantDirectory = participantDirectory;
+        this.telemetryWriter = telemetryWriter;
+        this.videoService = videoService;
+        this.vrAppUserService = vrAppUserService;
+        this.reportSnapshotService = reportSnapshotService;
+        this.rollupService = rollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts deleting the video with this filename. Empty if there is no such video.
+     */
+    public Optional<PurgeJob> purgeVideoByFilename(String filename) {
+        return videoRepository.findByFilename(filename).map(this::purgeVideo);
+    }
+
+    /**
+     * Starts deleting the video assigned to this date. Empty if there is no such video.
+     */
+    public Optional<PurgeJob> purgeVideoByDate(LocalDate date) {
+        return videoRepository.findByAssignedDate(date).map(this::purgeVideo);
+    }
+
+    /**
+     * Starts deleting a user and all their watch data, or returns the unfinished purge of the same user.
+     * Empty if there is no such user.
+     *
+     * @throws IllegalArgumentException if the user is an admin
+     */
+    public Optional<PurgeJob> purgeUser(String email) {
+        Optional<VRAppUser> vrUser = vrAppUserRepository.findByEmail(email);
+        Optional<User> user = userRepository.findByEmail(email);
+        if (vrUser.isEmpty() && user.isEmpty()) {
+            return Optional.empty();
+        }
+        if (user.isPresent() && user.get().getRole() != null && user.get().getRole().equalsIgnoreCase("admin")) {
+            throw new IllegalArgumentException("Cannot delete admin users");
+        }
+
+        PurgeJob job = newJob(PurgeJob.Type.USER, email);
+        PurgeJob active = activeJobs.putIfAbsent(key(job), job);
+        if (active != null) {
+            return Optional.of(active);
+        }
+
+        // Take the user out of daily status and reports straight away; the rows go once the purge finishes
+        try {
+            synchronized (job) {
+                vrUser.filter(VRAppUser::getActive).ifPresent(u -> {
+                    u.setActive(false);
+                    vrAppUserRepository.save(u);
+                    vrAppUserService.getVrUsersVersion().bump();
+                    job.setDeactivatedUser(true);
+                });
+                jobRepository.save(job);
+            }
+        } catch (RuntimeException e) {
+            activeJobs.remove(key(job), job);
+            restoreActive(job);
+            throw e;
+        }
+        submit(job);
+        return Optional.of(job);
+    }
+
+    /**
+     * Current state of a job, as shown to the admin UI
+     */
+    public Optional<PurgeJob> getJob(String jobId) {
+        for (PurgeJob active : activeJobs.values()) {
+            if (active.getId().equals(jobId)) {
+                return Optional.of(active);
+            }
+        }
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * The most recent jobs, newest first
+     */
+    public List<Map<String, Object>> listJobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (PurgeJob job : jobRepository.findTop100ByOrderByCreatedAtDesc()) {
+            PurgeJob active = activeJobs.get(key(job));
+            PurgeJob current = active != null && active.getId().equals(job.getId()) ? active : job;
+            synchronized (current) {
+                result.add(current.toMap());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs purges left unfinished by a previous run again from the start; rows they already deleted are simply gone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (PurgeJob job : jobRepository.findByStatusIn(List.of(PurgeJob.Status.QUEUED, PurgeJob.Status.RUNNING))) {
+            if (activeJobs.putIfAbsent(key(job), job) != null) {
+                continue;
+            }
+            job.setStatus(PurgeJob.Status.QUEUED);
+            jobRepository.save(job);
+            submit(job);
+            System.out.println("Resumed purge job " + job.getId() + " of " + job.getTarget());
+        }
+    }
+
+    private PurgeJob purgeVideo(VideoMetadata metadata) {
+        PurgeJob job = newJob(PurgeJob.Type.VIDEO, metadata.getFilename());
+        PurgeJob active = activeJobs.putIfAbsent(key(job), job);
+        if (active != null) {
+            return active;
+        }
+
+        // Stop serving the video to headsets now; the row itself goes once the purge finishes.
+        // If the purge fails the slot is given back, see restoreSchedule
+        try {
+            synchronized (job) {
+                job.setVideoId(metadata.getId());
+                job.setStorageKey(metadata.resolveStorageKey());
+                job.setDisplayOrder(metadata.getDisplayOrder());
+                job.setAssignedDate(metadata.getAssignedDate());
+                if (metadata.getDisplayOrder() != null || metadata.getAssignedDate() != null) {
+                    metadata.setDisplayOrder(null);
+                    metadata.setAssignedDate(null);
+                    videoRepository.save(metadata);
+                    videoService.getVideosVersion().bump();
+                }
+                jobRepository.save(job);
+            }
+        } catch (RuntimeException e) {
+            activeJobs.remove(key(job), job);
+            restoreSchedule(job);
+            throw e;
+        }
+        submit(job);
+        return job;
+    }
+
+    private static PurgeJob newJob(PurgeJob.Type type, String target) {
+        return PurgeJob.builder()
+                .id(UUID.randomUUID().toString())
+                .type(type)
+                .target(target)
+                .status(PurgeJob.Status.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String key(PurgeJob job) {
+        return job.getType() + ":" + job.getTarget();
+    }
+
+    private void submit(PurgeJob job) {
+        try {
+            executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays QUEUED in the table and is resumed on the next start
+            activeJobs.remove(key(job), job);
+        }
+    }
+
+    private void purgeUserRows(PurgeJob job) throws InterruptedException {
+        String email = job.getTarget();
+        // Queued progress updates would otherwise land after the purge
+        telemetryWriter.flush();
+        List<TimeSpan> spans = new ArrayList<>();
+        spans.add(watchEventRepository.findTimeSpanByEmail(email));
+        spans.add(completionRepository.findTimeSpanByEmail(email));
+        deleteInBatches(job, true,
+                pageable -> watchEventRepository.findIdsByEmail(email, pageable),
+                watchEventRepository::deleteAllByIdIn);
+        deleteInBatches(job, false,
+                pageable -> completionRepository.findIdsByEmail(email, pageable),
+                completionRepository::deleteAllByIdIn);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Catch anything recorded while the batches ran; at most a handful of rows
+            spans.add(watchEventRepository.findTimeSpanByEmail(email));
+            spans.add(completionRepository.findTimeSpanByEmail(email));
+            watchEventRepository.deleteAllByEmail(email);
+            completionRepository.deleteAllByEmail(email);
+            participantRepository.findByEmail(email).ifPresent(participantRepository::delete);
+            vrAppUserRepository.findByEmail(email).ifPresent(vrAppUserRepository::delete);
+            userRepository.findByEmail(email).ifPresent(userRepository::delete);
+        });
+        // The cached id points at the row just deleted
+        participantDirectory.evict(email);
+        vrAppUserService.getVrUsersVersion().bump();
+        rollupService.deleteFor(email, null);
+        invalidateSnapshots(spans);
+        System.out.println("Purged user and all related data: " + email);
+    }
+
+    private void purgeVideoRows(PurgeJob job) throws InterruptedException {
+        Long videoId = job.getVideoId();
+        System.out.println("Purging video: " + job.getTarget() + " (id=" + videoId + ")");
+        telemetryWriter.flush();
+        List<TimeSpan> spans = new ArrayList<>();
+        spans.add(watchEventRepository.findTimeSpanByVideoId(videoId));
+        spans.add(completionRepository.findTimeSpanByVideoId(videoId));
+        deleteInBatches(job, true,
+                pageable -> watchEventRepository.findIdsByVideoId(videoId, pageable),
+                watchEventRepository::deleteAllByIdIn);
+        deleteInBatches(job, false,
+                pageable -> completionRepository.findIdsByVideoId(videoId, pageable),
+                completionRepository::deleteAllByIdIn);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            spans.add(watchEventRepository.findTimeSpanByVideoId(videoId));
+            spans.add(completionRepository.findTimeSpanByVideoId(videoId));
+            watchEventRepository.deleteAllByVideoId(videoId);
+            completionRepository.deleteAllByVideoId(videoId);
+            videoRepository.findById(videoId).ifPresent(videoRepository::delete);
+        });
+        videoService.getVideosVersion().bump();
+        rollupService.deleteFor(null, videoId);
+        invalidateSnapshots(spans);
+
+        // Only now that the rows are gone for good is it safe to drop the bytes
+        if (job.getStorageKey() != null) {
+            videoService.deleteObjectIfUnreferenced(job.getStorageKey());
+        }
+        System.out.println("Purged metadata and video: " + job.getTarget());
+    }
+
+    /**
+     * Drops the report snapshots of the days between the earliest and latest of the purged rows.
+     */
+    private void invalidateSnapshots(List<TimeSpan> spans) {
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (TimeSpan span : spans) {
+            if (span == null || span.getEarliest() == null) {
+                continue;
+            }
+            if (earliest == null || span.getEarliest().isBefore(earliest)) {
+                earliest = span.getEarliest();
+            }
+            if (latest == null || span.getLatest().isAfter(latest)) {
+                latest = span.getLatest();
+            }
+        }
+        if (earliest != null) {
+            reportSnapshotService.invalidateBetween(earliest.toLocalDate(), latest.toLocalDate());
+        }
+    }
+
+    /**
+     * Puts a video whose purge failed back in the slot it was taken out of, unless it has been
+     * rescheduled or another video has taken the slot in the meantime.
+     */
+    private void restoreSchedule(PurgeJob job) {
+        Long videoId = job.getVideoId();
+        Integer displayOrder = job.getDisplayOrder();
+        LocalDate assignedDate = job.getAssignedDate();
+        if (displayOrder == null && assignedDate == null) {
+            return;
+        }
+        try {
+            Boolean restored = transactionTemplate.execute(status -> {
+                VideoMetadata current = videoRepository.findById(videoId).orElse(null);
+                if (current == null || current.getDisplayOrder() != null || current.getAssignedDate() != null) {
+                    return false;
+                }
+                if (displayOrder != null && videoRepository.findByDisplayOrder(displayOrder).isEmpty()) {
+                    current.setDisplayOrder(displayOrder);
+                }
+                if (assignedDate != null && videoRepository.findByAssignedDate(assignedDate).isEmpty()) {
+                    current.setAssignedDate(assignedDate);
+                }
+                videoRepository.save(current);
+                return true;
+            });
+            if (Boolean.TRUE.equals(restored)) {
+                videoService.getVideosVersion().bump();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to restore schedule of video " + videoId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reactivates a user whose purge failed, if the purge deactivated them and they still exist.
+     */
+    private void restoreActive(PurgeJob job) {
+        if (!job.isDeactivatedUser()) {
+            return;
+        }
+        try {
+            Boolean restored = transactionTemplate.execute(status -> vrAppUserRepository.findByEmail(job.getTarget())
+                    .filter(u -> !Boolean.TRUE.equals(u.getActive()))
+                    .map(u -> {
+                        u.setActive(true);
+                        vrAppUserRepository.save(u);
+                        return true;
+                    })
+                    .orElse(false));
+            if (Boolean.TRUE.equals(restored)) {
+                vrAppUserService.getVrUsersVersion().bump();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to reactivate user " + job.getTarget() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Repeatedly selects up to {@code batchSize} ids and deletes them, one short transaction per batch.
+     */
+    private void deleteInBatches(PurgeJob job, boolean watchEvents,
+                                 Function<Pageable, List<Long>> findIds,
+                                 Function<List<Long>, Integer> deleteIds) throws InterruptedException {
+        Pageable firstPage = PageRequest.of(0, batchSize);
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> {
+                List<Long> ids = findIds.apply(firstPage);
+                return ids.isEmpty() ? 0 : deleteIds.apply(ids);
+            });
+            if (deleted == null || deleted == 0) {
+                return;
+            }
+            synchronized (job) {
+                if (watchEvents) {
+                    job.setWatchEventsDeleted(job.getWatchEventsDeleted() + deleted);
+                } else {
+                    job.setCompletionsDeleted(job.getCompletionsDeleted() + deleted);
+                }
+                jobRepository.save(job);
+            }
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private void run(PurgeJob job) {
+        synchronized (job) {
+            job.setStatus(PurgeJob.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            jobRepository.save(job);
+        }
+        try {
+            if (job.getType() == PurgeJob.Type.USER) {
+                purgeUserRows(job);
+            } else {
+                purgeVideoRows(job);
+            }
+            finish(job, PurgeJob.Status.COMPLETED, null);
+        } catch (InterruptedException e) {
+            // Shutting down; the job stays RUNNING in the table and is resumed on the next start
+            System.out.println("Purge " + job.getId() + " of " + job.getTarget() + " interrupted, resumes on the next start");
+            activeJobs.remove(key(job), job);
+        } catch (Exception e) {
+            System.err.println("Purge " + job.getId() + " of " + job.getTarget() + " failed: " + e.getMessage());
+            if (job.getType() == PurgeJob.Type.USER) {
+                restoreActive(job);
+            } else {
+                restoreSchedule(job);
+            }
+            finish(job, PurgeJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(PurgeJob job, PurgeJob.Status status, String error) {
+        synchronized (job) {
+            job.setStatus(status);
+            job.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            job.setFinishedAt(LocalDateTime.now());
+            try {
+                jobRepository.save(job);
+            } catch (Exception e) {
+                System.err.println("Failed to record the end of purge " + job.getId() + ": " + e.getMessage());
+            }
+        }
+        activeJobs.remove(key(job), job);
+    }
+}
@@ -0,0 +1,297 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Adherence reports over a range of days.
+ * Each day is computed on a small shared pool through {@link DailyReportService}, so closed days come
+ * straight from their snapshots and the range costs about as long as its slowest day. Days are
+ * reduced to per-user counts as soon as they finish; the response is written while later days are
+ * still running and ends with the merged per-user totals. Completions come from each day's completion
+ * list and violations from its per-user event totals, so violations count whether or not the user completed.
+ */
+@Service
+public class RangeReportService {
+
+    private final DailyReportService dailyReportService;
+    private final VRAppUserRepository vrAppUserRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxDays;
+    private final ThreadPoolExecutor executor;
+
+    public RangeReportService(DailyReportService dailyReportService,
+                              VRAppUserRepository vrAppUserRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${report.range.threads:4}") int threads,
+                              @Value("${report.range.queue-capacity:200}") int queueCapacity,
+                              @Value("${report.range.max-days:92}") int maxDays) {
+        this.dailyReportService = dailyReportService;
+        this.vrAppUserRepository = vrAppUserRepository;
+        this.objectMapper = objectMapper;
+        this.maxDays = maxDays;
+        // A full queue rejects the whole range up front instead of piling work behind other requests
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "range-report");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One participant's counts for one day.
+     */
+    private static class UserDay {
+        String userName;
+        int completions;
+        int flaggedCompletions;
+        long violations;
+    }
+
+    private record DaySummary(LocalDate date, int totalCompletions, int flaggedCount, long totalUsers,
+                              Map<String, UserDay> users) {
+    }
+
+    /**
+     * A range whose days have been submitted; written out by {@link #write}.
+     */
+    public static class RangeReport {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final List<Future<DaySummary>> days;
+        private final Map<String, String> activeUsers;
+
+        private RangeReport(LocalDate from, LocalDate to, List<Future<DaySummary>> days,
+                            Map<String, String> activeUsers) {
+            this.from = from;
+            this.to = to;
+            this.days = days;
+            this.activeUsers = activeUsers;
+        }
+    }
+
+    /**
+     * Validates the range and starts computing its days.
+     * Throws IllegalArgumentException for a bad range and RejectedExecutionException when the pool is saturated.
+     */
+    public RangeReport start(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > maxDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxDays + " days");
+        }
+
+        // Active users appear in the result even with no completions, so their adherence shows as 0
+        Map<String, String> activeUsers = new LinkedHashMap<>();
+        for (VRAppUser user : vrAppUserRepository.findByActiveTrue()) {
+            activeUsers.put(user.getEmail(), user.getFirstName() + " " + user.getLastName());
+        }
+
+        // Plain executor futures, so cancel(true) interrupts a day that is already running
+        List<Future<DaySummary>> days = new ArrayList<>();
+        try {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                LocalDate date = day;
+                days.add(executor.submit(() -> summarize(date, dailyReportService.getDailyReport(date))));
+            }
+        } catch (RuntimeException e) {
+            cancel(days);
+            throw e;
+        }
+        return new RangeReport(from, to, days, activeUsers);
+    }
+
+    /**
+     * Interrupts the running days and takes the queued ones out of the pool's queue.
+     */
+    private void cancel(List<Future<DaySummary>> days) {
+        days.forEach(future -> future.cancel(true));
+        executor.purge();
+    }
+
+    /**
+     * Streams the report: range header, one entry per day in date order as each finishes, then per-user totals.
+     * A day that failed is reported with its error and left out of the totals.
+     */
+    public void write(RangeReport range, OutputStream out) throws IOException {
+        List<Map<String, UserDay>> perDay = new ArrayList<>();
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("from", range.from.toString());
+            json.writeStringField("to", range.to.toString());
+            json.writeNumberField("dayCount", range.days.size());
+
+            json.writeArrayFieldStart("days");
+            for (int i = 0; i < range.days.size(); i++) {
+                DaySummary day;
+                try {
+                    day = range.days.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for range report", e);
+                } catch (CancellationException e) {
+                    throw new IOException("Range report was cancelled", e);
+                } catch (ExecutionException e) {
+                    json.writeStartObject();
+                    json.writeStringField("date", range.from.plusDays(i).toString());
+                    json.writeStringField("error", String.valueOf(e.getCause().getMessage()));
+                    json.writeEndObject();
+                    perDay.add(null);
+                    continue;
+                }
+                json.writeStartObject();
+                json.writeStringField("date", day.date().toString());
+                json.writeNumberField("totalCompletions", day.totalCompletions());
+                json.writeNumberField("flaggedCount", day.flaggedCount());
+                json.writeNumberField("totalUsers", day.totalUsers());
+                json.writeNumberField("usersCompleted", day.users().values().stream().filter(u -> u.completions > 0).count());
+                json.writeEndObject();
+                json.flush();
+                perDay.add(day.users());
+            }
+            json.writeEndArray();
+
+            writeUsers(json, range, perDay);
+            json.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            // Client went away or the write failed: stop the days still running or queued
+            cancel(range.days);
+            throw e;
+        }
+    }
+
+    private void writeUsers(JsonGenerator json, RangeReport range, List<Map<String, UserDay>> perDay) throws IOException {
+        Map<String, String> names = new TreeMap<>(range.activeUsers);
+        for (Map<String, UserDay> users : perDay) {
+            if (users != null) {
+                users.forEach((email, userDay) -> names.putIfAbsent(email, userDay.userName));
+            }
+        }
+
+        int dayCount = perDay.size();
+        json.writeArrayFieldStart("users");
+        for (Map.Entry<String, String> user : names.entrySet()) {
+            String email = user.getKey();
+            int daysCompleted = 0;
+            int completions = 0;
+            int flaggedCompletions = 0;
+            long violations = 0;
+            int longestStreak = 0;
+            int streak = 0;
+            for (Map<String, UserDay> users : perDay) {
+                UserDay userDay = users == null ? null : users.get(email);
+                if (userDay != null) {
+                    completions += userDay.completions;
+                    flaggedCompletions += userDay.flaggedCompletions;
+                    violations += userDay.violations;
+                }
+                if (!completed(users, email)) {
+                    streak = 0;
+                    continue;
+                }
+                daysCompleted++;
+                streak++;
+                longestStreak = Math.max(longestStreak, streak);
+            }
+
+            // Same rule as the app's streak: an unfinished last day doesn't break the run before it
+            int currentStreak = streak;
+            if (currentStreak == 0 && dayCount > 1) {
+                for (int i = dayCount - 2; i >= 0 && completed(perDay.get(i), email); i--) {
+                    currentStreak++;
+                }
+            }
+
+            json.writeStartObject();
+            json.writeStringField("email", email);
+            json.writeStringField("userName", user.getValue());
+            json.writeBooleanField("active", range.activeUsers.containsKey(email));
+            json.writeNumberField("daysCompleted", daysCompleted);
+            json.writeNumberField("adherencePercent", Math.round(daysCompleted * 1000.0 / dayCount) / 10.0);
+            json.writeNumberField("completions", completions);
+            json.writeNumberField("flaggedCompletions", flaggedCompletions);
+            json.writeNumberField("violations", violations);
+            json.writeNumberField("longestStreak", longestStreak);
+            json.writeNumberField("currentStreak", currentStreak);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static boolean completed(Map<String, UserDay> users, String email) {
+        UserDay userDay = users == null ? null : users.get(email);
+        return userDay != null && userDay.completions > 0;
+    }
+
+    /**
+     * Keeps only what the range totals need, so full day reports don't pile up while other days run.
+     * Works on both fresh reports and snapshot-backed ones. Violations are taken once per user and day
+     * from the event rollups in watchSummary, not from the completions they happen to be attached to.
+     */
+    @SuppressWarnings("unchecked")
+    private DaySummary summarize(LocalDate date, Map<String, Object> report) {
+        Map<String, UserDay> users = new LinkedHashMap<>();
+        for (Map<String, Object> completion : (Collection<Map<String, Object>>) report.get("completions")) {
+            String email = (String) completion.get("email");
+            UserDay userDay = users.computeIfAbsent(email, key -> new UserDay());
+            userDay.userName = (String) completion.get("userName");
+            userDay.completions++;
+            if (Boolean.TRUE.equals(completion.get("flagged"))) {
+                userDay.flaggedCompletions++;
+            }
+        }
+        Collection<Map<String, Object>> watchSummary =
+                (Collection<Map<String, Object>>) report.getOrDefault("watchSummary", List.of());
+        for (Map<String, Object> row : watchSummary) {
+            long violations = ((Number) row.get("violations")).longValue();
+            if (violations == 0) {
+                continue;
+            }
+            String email = (String) row.get("email");
+            UserDay userDay = users.computeIfAbsent(email, key -> new UserDay());
+            if (userDay.userName == null) {
+                userDay.userName = (String) row.get("userName");
+            }
+            userDay.violations += violations;
+        }
+        return new DaySummary(date,
+                ((Number) report.get("totalCompletions")).intValue(),
+                ((Number) report.get("flaggedCount")).intValue(),
+                ((Number) report.get("totalUsers")).longValue(),
+                users);
+    }
+}
@@ -0,0 +1,223 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportCatalogEntry;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.ReportCatalogRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ResourceVersion;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Index of the stored report PDFs. Writers record each report as they store it; the list is served
+ * from an in-memory copy of the {@code report_catalog} table, newest first. A periodic reconcile
+ * lists the bucket once to repair drift (reports written or removed outside the app, failed records).
+ */
+@Service
+public class ReportCatalogService {
+
+    private static final Comparator<ReportCatalogEntry> NEWEST_FIRST = Comparator
+            .comparing(ReportCatalogEntry::getReportDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ReportCatalogEntry::getFilename);
+
+    private final ReportCatalogRepository repository;
+    private final MediaStore mediaStore;
+    private final String reportsFolder;
+
+    // Bumped whenever the catalog changes, so the report list can be revalidated cheaply
+    private final ResourceVersion version = new ResourceVersion("reports");
+
+    // Guarded by this; readers use the sorted snapshot
+    private final Map<String, ReportCatalogEntry> entries = new HashMap<>();
+    private volatile List<ReportCatalogEntry> sorted = List.of();
+
+    // When each report was last recorded by this process, so a reconcile doesn't drop one its listing missed
+    private final Map<String, Instant> recordedAt = new HashMap<>();
+
+    public ReportCatalogService(ReportCatalogRepository repository,
+                                MediaStore mediaStore,
+                                @Value("${gcs.reports-folder:reports}") String reportsFolder) {
+        this.repository = repository;
+        this.mediaStore = mediaStore;
+        this.reportsFolder = reportsFolder;
+    }
+
+    public ResourceVersion getVersion() {
+        return version;
+    }
+
+    @PostConstruct
+    synchronized void load() {
+        for (ReportCatalogEntry entry : repository.findAll()) {
+            entries.put(entry.getFilename(), entry);
+        }
+        publish();
+        System.out.println("Loaded report catalog (" + entries.size() + " reports)");
+        if (entries.isEmpty()) {
+            // First start with the catalog table: index whatever the bucket already holds
+            reconcile();
+        }
+    }
+
+    /**
+     * Records a report that has just been written to the store.
+     */
+    public synchronized void record(MediaObject object) {
+        ReportCatalogEntry entry = toEntry(object);
+        repository.save(entry);
+        entries.put(entry.getFilename(), entry);
+        recordedAt.put(entry.getFilename(), Instant.now());
+        publish();
+        version.bump();
+    }
+
+    /**
+     * Reports whose date falls in [from, to] (either bound may be null), newest first.
+     * {@code size} 0 returns every match.
+     */
+    public List<Map<String, Object>> list(LocalDate from, LocalDate to, int page, int size) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        int skip = size > 0 ? page * size : 0;
+        for (ReportCatalogEntry entry : sorted) {
+            if (!inRange(entry.getReportDate(), from, to)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (size > 0 && result.size() >= size) {
+                break;
+            }
+            result.add(toMap(entry));
+        }
+        return result;
+    }
+
+    public int count(LocalDate from, LocalDate to) {
+        int count = 0;
+        for (ReportCatalogEntry entry : sorted) {
+            if (inRange(entry.getReportDate(), from, to)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Brings the catalog in line with the bucket. Entries recorded while the listing was in progress are kept.
+     */
+    @Scheduled(fixedDelayString = "${report.catalog.reconcile-interval-ms:21600000}", initialDelay = 30000)
+    public void reconcile() {
+        Instant started = Instant.now();
+        List<MediaObject> objects;
+        try {
+            objects = mediaStore.list(reportsFolder + "/");
+        } catch (Exception e) {
+            System.err.println("Report catalog reconcile failed to list reports: " + e.getMessage());
+            return;
+        }
+
+        int added = 0;
+        int removed = 0;
+        synchronized (this) {
+            Set<String> seen = new HashSet<>();
+            for (MediaObject object : objects) {
+                if (!object.getKey().endsWith(".pdf")) {
+                    continue;
+                }
+                ReportCatalogEntry fresh = toEntry(object);
+                seen.add(fresh.getFilename());
+                ReportCatalogEntry current = entries.get(fresh.getFilename());
+                if (current == null || !Objects.equals(current.getEtag(), fresh.getEtag())
+                        || current.getSizeBytes() != fresh.getSizeBytes()) {
+                    repository.save(fresh);
+                    entries.put(fresh.getFilename(), fresh);
+                    added++;
+                }
+            }
+            for (ReportCatalogEntry entry : new ArrayList<>(entries.values())) {
+                Instant recorded = recordedAt.get(entry.getFilename());
+                boolean recordedSinceListing = recorded != null && !recorded.isBefore(started);
+                if (!seen.contains(entry.getFilename()) && !recordedSinceListing) {
+                    repository.deleteById(entry.getFilename());
+                    entries.remove(entry.getFilename());
+                    removed++;
+                }
+            }
+            recordedAt.values().removeIf(recorded -> recorded.isBefore(started));
+            if (added > 0 || removed > 0) {
+                publish();
+                version.bump();
+            }
+        }
+        if (added > 0 || removed > 0) {
+            System.out.println("Report catalog reconciled: " + added + " added or updated, " + removed + " removed");
+        }
+    }
+
+    private void publish() {
+        List<ReportCatalogEntry> snapshot = new ArrayList<>(entries.values());
+        snapshot.sort(NEWEST_FIRST);
+        sorted = List.copyOf(snapshot);
+    }
+
+    private ReportCatalogEntry toEntry(MediaObject object) {
+        String filename = object.getKey().substring(reportsFolder.length() + 1);
+        return ReportCatalogEntry.builder()
+                .filename(filename)
+                .reportDate(extractDateFromFilename(filename))
+                .sizeBytes(object.getSize())
+                .etag(object.getEtag())
+                .createdAt(object.getLastModified() != null ? object.getLastModified() : Instant.now())
+                .build();
+    }
+
+    private static boolean inRange(LocalDate date, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    private static Map<String, Object> toMap(ReportCatalogEntry entry) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("filename", entry.getFilename());
+        report.put("date", entry.getReportDate() != null ? entry.getReportDate().toString() : "Unknown");
+        report.put("createdAt", entry.getCreatedAt() != null ? entry.getCreatedAt().toEpochMilli() : null);
+        report.put("size", entry.getSizeBytes());
+        return report;
+    }
+
+    /**
+     * Extracts the trailing yyyy-MM-dd from names like "daily-report-2024-01-15.pdf".
+     */
+    private static LocalDate extractDateFromFilename(String filename) {
+        String name = filename.endsWith(".pdf") ? filename.substring(0, filename.length() - 4) : filename;
+        if (name.length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(name.length() - 10));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportJob;
+import com.blbu.BLBU_VR_APP_SERVICE.model.ReportJob.Status;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.ReportJobRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Renders and stores daily PDF reports for ranges of days in the background.
+ * Days run in parallel on a small worker pool and are retried with exponential backoff. A request
+ * for a range that is already in flight returns the existing job, and a day already being rendered
+ * for another job is shared rather than rendered twice. Job progress is persisted as it changes;
+ * jobs cut short by a restart are picked up again on startup.
+ */
+@Service
+public class ReportJobService {
+
+    private final ReportJobRepository repository;
+    private final PdfReportService pdfReportService;
+    private final int maxDays;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final ExecutorService workers;
+
+    // Only waits out backoff delays; the retry itself goes back onto the worker pool
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-job-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Unfinished jobs by id; each instance is only mutated and saved while holding its own lock
+    private final Map<String, ReportJob> activeJobs = new ConcurrentHashMap<>();
+
+    // Days currently being rendered, guarded by this
+    private final Map<LocalDate, CompletableFuture<Void>> inFlightDays = new HashMap<>();
+
+    public ReportJobService(ReportJobRepository repository,
+                            PdfReportService pdfReportService,
+                            @Value("${report.jobs.threads:3}") int threads,
+                            @Value("${report.jobs.max-days:366}") int maxDays,
+                            @Value("${report.jobs.max-attempts:3}") int maxAttempts,
+                            @Value("${report.jobs.retry-backoff-ms:5000}") long retryBackoffMillis) {
+        this.repository = repository;
+        this.pdfReportService = pdfReportService;
+        this.maxDays = maxDays;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "report-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues PDF generation for every day in [from, to], or returns the unfinished job for the same range.
+     */
+    public synchronized ReportJob enqueue(LocalDate from, LocalDate to, String requestedBy) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > maxDays) {
+            throw new IllegalArgumentException("A report job is limited to " + maxDays + " days");
+        }
+        if (to.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Cannot generate reports for future days");
+        }
+        for (ReportJob existing : activeJobs.values()) {
+            if (existing.getFromDate().equals(from) && existing.getToDate().equals(to)) {
+                return existing;
+            }
+        }
+
+        ReportJob job = ReportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .fromDate(from)
+                .toDate(to)
+                .status(Status.QUEUED)
+                .requestedBy(requestedBy)
+                .totalDays((int) dayCount)
+                .createdAt(LocalDateTime.now())
+                .build();
+        repository.save(job);
+        activeJobs.put(job.getId(), job);
+        start(job);
+        System.out.println("Queued report job " + job.getId() + " for " + from + " to " + to);
+        return job;
+    }
+
+    /**
+     * Current state of a job, as shown to the admin UI
+     */
+    public Optional<Map<String, Object>> getJob(String jobId) {
+        ReportJob active = activeJobs.get(jobId);
+        if (active != null) {
+            synchronized (active) {
+                return Optional.of(active.toMap());
+            }
+        }
+        return repository.findById(jobId).map(ReportJob::toMap);
+    }
+
+    /**
+     * The most recent jobs, newest first
+     */
+    public List<Map<String, Object>> listJobs() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ReportJob job : repository.findTop100ByOrderByCreatedAtDesc()) {
+            ReportJob active = activeJobs.get(job.getId());
+            ReportJob current = active != null ? active : job;
+            synchronized (current) {
+                result.add(current.toMap());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Restarts jobs left unfinished by a previous run. Days they had already stored are simply rewritten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resumeInterruptedJobs() {
+        for (ReportJob job : repository.findByStatusIn(List.of(Status.QUEUED, Status.RUNNING))) {
+            job.setStatus(Status.QUEUED);
+            job.setCompletedDays(0);
+            job.setFailedDays(0);
+            job.setStartedAt(null);
+            repository.save(job);
+            activeJobs.put(job.getId(), job);
+            start(job);
+            System.out.println("Resumed report job " + job.getId() + " for " + job.getFromDate() + " to " + job.getToDate());
+        }
+    }
+
+    private void start(ReportJob job) {
+        List<CompletableFuture<Void>> days = new ArrayList<>();
+        for (LocalDate day = job.getFromDate(); !day.isAfter(job.getToDate()); day = day.plusDays(1)) {
+            days.add(renderDay(day, job).whenComplete((ignored, error) -> recordDay(job, error)));
+        }
+        CompletableFuture.allOf(days.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> finish(job));
+    }
+
+    private synchronized CompletableFuture<Void> renderDay(LocalDate day, ReportJob job) {
+        CompletableFuture<Void> existing = inFlightDays.get(day);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        inFlightDays.put(day, result);
+        result.whenComplete((ignored, error) -> {
+            synchronized (this) {
+                inFlightDays.remove(day, result);
+            }
+        });
+        attempt(day, 1, job, result);
+        return result;
+    }
+
+    private void attempt(LocalDate day, int attempt, ReportJob job, CompletableFuture<Void> result) {
+        try {
+            workers.execute(() -> {
+                markRunning(job);
+                try {
+                    pdfReportService.generateAndSaveDailyReport(day);
+                    result.complete(null);
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        System.err.println("Report for " + day + " failed after " + attempt + " attempt(s): " + e.getMessage());
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    long delay = retryBackoffMillis << (attempt - 1);
+                    System.err.println("Report for " + day + " failed (attempt " + attempt + "), retrying in " + delay + " ms: " + e.getMessage());
+                    synchronized (job) {
+                        job.setRetries(job.getRetries() + 1);
+                        repository.save(job);
+                    }
+                    try {
+                        retryScheduler.schedule(() -> attempt(day, attempt + 1, job, result), delay, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException rejected) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays RUNNING in the table and is resumed on the next start
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void markRunning(ReportJob job) {
+        synchronized (job) {
+            if (job.getStatus() == Status.QUEUED) {
+                job.setStatus(Status.RUNNING);
+                job.setStartedAt(LocalDateTime.now());
+                repository.save(job);
+            }
+        }
+    }
+
+    private void recordDay(ReportJob job, Throwable error) {
+        if (error instanceof RejectedExecutionException) {
+            return;
+        }
+        synchronized (job) {
+            if (error == null) {
+                job.setCompletedDays(job.getCompletedDays() + 1);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                job.setFailedDays(job.getFailedDays() + 1);
+                job.setLastError(truncate(String.valueOf(cause.getMessage()), 1000));
+            }
+            repository.save(job);
+        }
+    }
+
+    private void finish(ReportJob job) {
+        synchronized (job) {
+            if (job.getCompletedDays() + job.getFailedDays() < job.getTotalDays()) {
+                // Interrupted by shutdown
+                activeJobs.remove(job.getId());
+                return;
+            }
+            job.setStatus(job.getFailedDays() > 0 ? Status.FAILED : Status.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            repository.save(job);
+        }
+        activeJobs.remove(job.getId());
+        System.out.println("Report job " + job.getId() + " " + job.getStatus() + ": "
+                + job.getCompletedDays() + " stored, " + job.getFailedDays() + " failed");
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,192 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.DailyReportSnapshot;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.DailyReportSnapshotRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Stores computed daily reports for closed days, with an in-memory LRU in front of the table.
+ * A day counts as closed a grace period after midnight, once in-flight writes for it have landed.
+ * Snapshots are dropped when late data or deletions touch their day.
+ */
+@Service
+public class ReportSnapshotService {
+
+    private static final TypeReference<Map<String, Object>> REPORT_TYPE = new TypeReference<>() {
+    };
+
+    private final DailyReportSnapshotRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final long graceMinutes;
+    private final Map<LocalDate, Map<String, Object>> cache;
+
+    // Bumped by every invalidation; a snapshot computed across an invalidation is not saved
+    private final AtomicLong generation = new AtomicLong();
+
+    // Held while a save checks the generation and writes, and while an invalidation bumps it and deletes,
+    // so a stale snapshot can never be written after the invalidation that made it stale
+    private final Object writeLock = new Object();
+
+    public ReportSnapshotService(DailyReportSnapshotRepository repository,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${report.snapshot.grace-minutes:10}") long graceMinutes,
+                                 @Value("${report.snapshot.cache-size:90}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        // The writing transaction has already committed when afterCommit runs; the delete needs its own
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.graceMinutes = graceMinutes;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, Map<String, Object>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public boolean isClosed(LocalDate date) {
+        return LocalDateTime.now().minusMinutes(graceMinutes).toLocalDate().isAfter(date);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Optional<Map<String, Object>> get(LocalDate date) {
+        synchronized (cache) {
+            Map<String, Object> cached = cache.get(date);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<DailyReportSnapshot> snapshot = repository.findById(date);
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, Object> report = decode(snapshot.get().getPayload());
+        synchronized (cache) {
+            cache.put(date, report);
+        }
+        return Optional.of(report);
+    }
+
+    /**
+     * Persists the report for a closed day and returns it in the form later reads will see
+     * (JSON types, read-only), so callers get the same shape whether or not it came from the snapshot.
+     * Nothing is stored if an invalidation happened after {@code computedAtGeneration} was read.
+     */
+    public Map<String, Object> save(LocalDate date, Map<String, Object> report, long computedAtGeneration) {
+        byte[] payload = encode(report);
+        Map<String, Object> canonical = decode(payload);
+        synchronized (writeLock) {
+            if (generation.get() != computedAtGeneration) {
+                return canonical;
+            }
+            repository.save(DailyReportSnapshot.builder()
+                    .reportDate(date)
+                    .payload(payload)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            synchronized (cache) {
+                cache.put(date, canonical);
+            }
+        }
+        System.out.println("Saved report snapshot for " + date + " (" + payload.length + " bytes)");
+        return canonical;
+    }
+
+    /**
+     * Called for writes stamped with {@code date}; only closed days have a snapshot to drop.
+     * Inside a transaction the snapshot is dropped after commit, so a report rebuilt in between
+     * cannot be saved from data that does not include the write yet.
+     */
+    public void invalidateIfClosed(LocalDate date) {
+        if (!isClosed(date)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    newTransaction.executeWithoutResult(status -> invalidate(date));
+                }
+            });
+        } else {
+            invalidate(date);
+        }
+    }
+
+    public void invalidate(LocalDate date) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            synchronized (cache) {
+                cache.remove(date);
+            }
+            if (repository.existsById(date)) {
+                repository.deleteById(date);
+                System.out.println("Invalidated report snapshot for " + date);
+            }
+        }
+    }
+
+    /**
+     * Drops the snapshots of every day in [from, to]. Used by user/video purges, which delete rows over a span of days.
+     */
+    public void invalidateBetween(LocalDate from, LocalDate to) {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            synchronized (cache) {
+                cache.keySet().removeIf(date -> !date.isBefore(from) && !date.isAfter(to));
+            }
+            int deleted = repository.deleteByReportDateBetween(from, to);
+            if (deleted > 0) {
+                System.out.println("Invalidated " + deleted + " report snapshot(s) between " + from + " and " + to);
+            }
+        }
+    }
+
+    private byte[] encode(Map<String, Object> report) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, report);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode report snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Map<String, Object> decode(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return Collections.unmodifiableMap(objectMapper.readValue(in, REPORT_TYPE));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode report snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.DailyRollup;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent.EventType;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.DailyRollupRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Maintains the (day, user, video) counters in {@code daily_rollups}.
+ * {@link TelemetryWriter} hands every batch it writes to {@link #recordEvents} / {@link #recordCompletions},
+ * which add its deltas to an in-memory map once the rows are stored and committed; a scheduled flush
+ * upserts the accumulated deltas in one JDBC batch. Reads merge the table with unflushed deltas,
+ * so they are never behind ingestion. Live deltas count exactly what {@link #rebuild} computes from the raw rows.
+ */
+@Service
+public class RollupService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO daily_rollups (rollup_day, email, video_id, completions, violations, events, watch_seconds, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE completions = completions + VALUES(completions), " +
+            "violations = violations + VALUES(violations), events = events + VALUES(events), " +
+            "watch_seconds = watch_seconds + VALUES(watch_seconds), updated_at = VALUES(updated_at)";
+
+    // One row per (email, video) that had any completion or event in [?, ?)
+    private static final String REBUILD_SQL =
+            "INSERT INTO daily_rollups (rollup_day, email, video_id, completions, violations, events, watch_seconds, updated_at) " +
+            "SELECT ?, email, video_id, SUM(completions), SUM(violations), SUM(events), SUM(watch_seconds), ? FROM (" +
+            "  SELECT email, video_id, COUNT(*) AS completions, 0 AS violations, 0 AS events, 0 AS watch_seconds " +
+            "  FROM video_completion WHERE completed_at >= ? AND completed_at < ? GROUP BY email, video_id " +
+            "  UNION ALL " +
+            "  SELECT email, video_id, 0, SUM(event_type IN ('VIOLATION', 'SEEK_ATTEMPT')), COUNT(*), 0 " +
+            "  FROM video_watch_events WHERE timestamp >= ? AND timestamp < ? AND video_id IS NOT NULL GROUP BY email, video_id " +
+            "  UNION ALL " +
+            "  SELECT email, video_id, 0, 0, 0, SUM(max_time) FROM (" +
+            "    SELECT email, video_id, MAX(video_time) AS max_time FROM video_watch_events " +
+            "    WHERE timestamp >= ? AND timestamp < ? AND video_id IS NOT NULL AND video_time IS NOT NULL " +
+            "    GROUP BY email, video_id, session_id) sessions GROUP BY email, video_id" +
+            ") t GROUP BY email, video_id";
+
+    // Furthest position of one session on one video that day, as stored; uses idx_watch_events_participant
+    private static final String SESSION_MAX_SQL =
+            "SELECT MAX(video_time) FROM video_watch_events WHERE participant_id = ? AND timestamp >= ? AND timestamp < ? " +
+            "AND session_id = ? AND video_id = ? AND email = ?";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    public record Key(LocalDate day, String email, Long videoId) {
+    }
+
+    private record SessionKey(Key key, String sessionId) {
+    }
+
+    /**
+     * Counters for one key, either accumulated since the last flush or merged for reads.
+     */
+    public static class Totals {
+        private final LongAdder completions = new LongAdder();
+        private final LongAdder violations = new LongAdder();
+        private final LongAdder events = new LongAdder();
+        private final DoubleAdder watchSeconds = new DoubleAdder();
+
+        public long getCompletions() {
+            return completions.sum();
+        }
+
+        public long getViolations() {
+            return violations.sum();
+        }
+
+        public long getEvents() {
+            return events.sum();
+        }
+
+        public double getWatchSeconds() {
+            return watchSeconds.sum();
+        }
+
+        private void add(Totals other) {
+            completions.add(other.getCompletions());
+            violations.add(other.getViolations());
+            events.add(other.getEvents());
+            watchSeconds.add(other.getWatchSeconds());
+        }
+    }
+
+    private final DailyRollupRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxRebuildDays;
+
+    // Writers share the read lock; the flush takes the write lock just long enough to swap maps
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Map<Key, Totals> pending = new ConcurrentHashMap<>();
+
+    // Held shared by writers from before their insert until its deltas are pending, and exclusively by a rebuild,
+    // so every row is either counted by the rebuild's query or added as a delta after it, never both
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Furthest counted position per session, so watch_seconds adds up to the rebuild's SUM of per-session MAX
+    private final Map<SessionKey, Double> sessionMax = new ConcurrentHashMap<>();
+
+    public RollupService(DailyRollupRepository repository, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${rollup.rebuild.max-days:31}") int maxRebuildDays) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxRebuildDays = maxRebuildDays;
+    }
+
+    /**
+     * Runs {@code write}, which stores {@code events}, and counts them once it has committed.
+     * Nothing is counted if the write throws or its transaction rolls back.
+     */
+    public void recordEvents(List<VideoWatchEvent> events, Runnable write) {
+        loadSessionMax(events);
+        writeThenCount(write, () -> events.forEach(this::countEvent));
+    }
+
+    /**
+     * Runs {@code write}, which stores {@code completions}, and counts them once it has committed.
+     */
+    public void recordCompletions(List<VideoCompletion> completions, Runnable write) {
+        writeThenCount(write, () -> completions.forEach(completion -> accumulate(
+                new Key(completion.getCompletedAt().toLocalDate(), completion.getEmail(), completion.getVideo().getId()),
+                totals -> totals.completions.increment())));
+    }
+
+    /**
+     * All counters for a day, including deltas not yet flushed.
+     * Synchronized with {@link #flush()} so a delta is never seen both (or neither) pending and stored.
+     */
+    public synchronized Map<Key, Totals> getDay(LocalDate day) {
+        Map<Key, Totals> result = new HashMap<>();
+        for (DailyRollup row : repository.findByDay(day)) {
+            Totals totals = new Totals();
+            totals.completions.add(row.getCompletions());
+            totals.violations.add(row.getViolations());
+            totals.events.add(row.getEvents());
+            totals.watchSeconds.add(row.getWatchSeconds());
+            result.put(new Key(day, row.getId().getEmail(), row.getId().getVideoId()), totals);
+        }
+        swapLock.readLock().lock();
+        try {
+            pending.forEach((key, totals) -> {
+                if (key.day().equals(day)) {
+                    result.computeIfAbsent(key, k -> new Totals()).add(totals);
+                }
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${rollup.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        // Sessions do not span more than a day boundary; older positions are never read again
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        sessionMax.keySet().removeIf(sessionKey -> sessionKey.key().day().isBefore(yesterday));
+
+        Map<Key, Totals> batch;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Key, Totals>> rows = new ArrayList<>(batch.entrySet());
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+                Key key = row.getKey();
+                Totals totals = row.getValue();
+                ps.setDate(1, Date.valueOf(key.day()));
+                ps.setString(2, key.email());
+                ps.setLong(3, key.videoId());
+                ps.setLong(4, totals.getCompletions());
+                ps.setLong(5, totals.getViolations());
+                ps.setLong(6, totals.getEvents());
+                ps.setDouble(7, totals.getWatchSeconds());
+                ps.setTimestamp(8, now, Calendar.getInstance(UTC));
+            });
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            System.err.println("Rollup flush of " + rows.size() + " rows failed: " + e.getMessage());
+            batch.forEach((key, totals) -> accumulate(key, target -> target.add(totals)));
+        }
+    }
+
+    /**
+     * Regenerates the rollups for [from, to] from raw completions and watch events.
+     * Unflushed deltas for a day are dropped just before its rows are recomputed, since the raw rows
+     * they describe have already committed and are picked up by the recompute.
+     *
+     * @return the number of days rebuilt
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (from.plusDays(maxRebuildDays).isBefore(to.plusDays(1))) {
+            throw new IllegalArgumentException("Rebuild is limited to " + maxRebuildDays + " days");
+        }
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rebuildDay(day);
+            days++;
+        }
+        System.out.println("Rebuilt rollups for " + days + " day(s) from " + from + " to " + to);
+        return days;
+    }
+
+    private synchronized void rebuildDay(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp next = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        rebuildLock.writeLock().lock();
+        try {
+            swapLock.writeLock().lock();
+            try {
+                pending.keySet().removeIf(key -> key.day().equals(day));
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.deleteByDay(day);
+                jdbcTemplate.update(REBUILD_SQL, ps -> {
+                    ps.setDate(1, Date.valueOf(day));
+                    setTimestamp(ps, 2, Timestamp.valueOf(LocalDateTime.now()));
+                    for (int index = 3; index <= 7; index += 2) {
+                        setTimestamp(ps, index, start);
+                        setTimestamp(ps, index + 1, next);
+                    }
+                });
+            });
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops a purged user's or video's rollups. Either argument may be null.
+     */
+    public void deleteFor(String email, Long videoId) {
+        sessionMax.keySet().removeIf(sessionKey -> (email != null && email.equals(sessionKey.key().email()))
+                || (videoId != null && videoId.equals(sessionKey.key().videoId())));
+        transactionTemplate.executeWithoutResult(status -> {
+            if (email != null) {
+                repository.deleteByEmail(email);
+            }
+            if (videoId != null) {
+                repository.deleteByVideoId(videoId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void accumulate(Key key, Consumer<Totals> update) {
+        swapLock.readLock().lock();
+        try {
+            update.accept(pending.computeIfAbsent(key, k -> new Totals()));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void countEvent(VideoWatchEvent event) {
+        if (event.getVideo() == null) {
+            return;
+        }
+        Key key = new Key(event.getTimestamp().toLocalDate(), event.getEmail(), event.getVideo().getId());
+        EventType type = event.getEventType();
+        boolean violation = type == EventType.VIOLATION || type == EventType.SEEK_ATTEMPT;
+
+        // The session's first stored position counts in full, later ones by how far they move its furthest
+        double[] watchedSeconds = new double[1];
+        if (event.getVideoTime() != null) {
+            watchedSeconds[0] = event.getVideoTime();
+            sessionMax.merge(new SessionKey(key, event.getSessionId()), event.getVideoTime(), (previous, time) -> {
+                watchedSeconds[0] = Math.max(0, time - previous);
+                return Math.max(previous, time);
+            });
+        }
+        accumulate(key, totals -> {
+            totals.events.increment();
+            if (violation) {
+                totals.violations.increment();
+            }
+            totals.watchSeconds.add(watchedSeconds[0]);
+        });
+    }
+
+    /**
+     * Reads the stored furthest position of sessions not seen since startup, before their new rows are written.
+     * Rows without a participant id predate it and only belong to earlier days.
+     */
+    private void loadSessionMax(List<VideoWatchEvent> events) {
+        Set<SessionKey> checked = new HashSet<>();
+        for (VideoWatchEvent event : events) {
+            if (event.getVideo() == null || event.getVideoTime() == null || event.getParticipantId() == null) {
+                continue;
+            }
+            LocalDate day = event.getTimestamp().toLocalDate();
+            SessionKey sessionKey = new SessionKey(new Key(day, event.getEmail(), event.getVideo().getId()),
+                    event.getSessionId());
+            if (sessionMax.containsKey(sessionKey) || !checked.add(sessionKey)) {
+                continue;
+            }
+            Double stored = jdbcTemplate.query(SESSION_MAX_SQL, ps -> {
+                ps.setInt(1, event.getParticipantId());
+                setTimestamp(ps, 2, Timestamp.valueOf(day.atStartOfDay()));
+                setTimestamp(ps, 3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+                ps.setString(4, event.getSessionId());
+                ps.setLong(5, event.getVideo().getId());
+                ps.setString(6, event.getEmail());
+            }, rs -> rs.next() ? rs.getObject(1, Double.class) : null);
+            if (stored != null) {
+                sessionMax.putIfAbsent(sessionKey, stored);
+            }
+        }
+    }
+
+    private void writeThenCount(Runnable write, Runnable count) {
+        rebuildLock.readLock().lock();
+        boolean deferred = false;
+        try {
+            write.run();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        count.run();
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        rebuildLock.readLock().unlock();
+                    }
+                });
+                deferred = true;
+            } else {
+                count.run();
+            }
+        } finally {
+            if (!deferred) {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    }
+
+    // Bound the way TelemetryWriter and Hibernate write them under hibernate.jdbc.time_zone=UTC
+    private static void setTimestamp(PreparedStatement ps, int index, Timestamp value) throws SQLException {
+        ps.setTimestamp(index, value, Calendar.getInstance(UTC));
+    }
+}
@@ -0,0 +1,217 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoWatchEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Inserts watch events and completions with plain JDBC instead of through the persistence context.
+ * Ids come from {@link IdRangeAllocator} up front, so rows can be sent as JDBC batches; with
+ * rewriteBatchedStatements the driver turns each batch into multi-row INSERTs. Ids are written back onto
+ * the entities, which stay the read model. Joins the caller's transaction if there is one.
+ * Every written batch is counted into the daily rollups by {@link RollupService} once it has committed.
+ * Progress updates, the bulk of the traffic, can instead be {@link #enqueueEvent queued} and written
+ * a batch at a time, either every flush interval or as soon as a full batch is waiting.
+ */
+@Service
+public class TelemetryWriter {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO video_watch_events (id, email, participant_id, session_id, video_id, event_type, video_time, "
+                    + "video_duration, percent_watched, details, timestamp, ip_address, user_agent) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_COMPLETION_SQL =
+            "INSERT INTO video_completion (id, email, participant_id, video_id, completed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdRangeAllocator idRangeAllocator;
+    private final RollupService rollupService;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    // Queued events, ids already assigned; guarded by this
+    private List<VideoWatchEvent> pending = new ArrayList<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "telemetry-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TelemetryWriter(JdbcTemplate jdbcTemplate, IdRangeAllocator idRangeAllocator, RollupService rollupService,
+                           @Value("${telemetry.writer.batch-size:500}") int batchSize,
+                           @Value("${telemetry.writer.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idRangeAllocator = idRangeAllocator;
+        this.rollupService = rollupService;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Before any repository save, since Hibernate creates the generator rows at 0
+        idRangeAllocator.seed("video_watch_events");
+        idRangeAllocator.seed("video_completion");
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    public void insertEvent(VideoWatchEvent event) {
+        insertEvents(List.of(event));
+    }
+
+    public void insertEvents(List<VideoWatchEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        assignIds(events);
+        write(events);
+    }
+
+    /**
+     * Assigns the event its id and queues it for the next batch. Queued events are not visible to queries
+     * until flushed, so only events nothing reads back right away belong here. When a full batch is waiting
+     * the caller writes it, so a slow database holds back producers instead of growing the queue.
+     */
+    public void enqueueEvent(VideoWatchEvent event) {
+        assignIds(List.of(event));
+        List<VideoWatchEvent> batch = null;
+        synchronized (this) {
+            pending.add(event);
+            if (pending.size() >= batchSize) {
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+        }
+        if (batch != null) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Writes every queued event now, e.g. before a purge deletes a user's rows.
+     */
+    public void flush() {
+        List<VideoWatchEvent> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        write(batch);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Progress updates only; a later one for the same session carries the same information
+            System.err.println("Failed to write queued watch events: " + e.getMessage());
+        }
+    }
+
+    private void assignIds(List<VideoWatchEvent> events) {
+        long id = idRangeAllocator.allocate("video_watch_events", events.size());
+        for (VideoWatchEvent event : events) {
+            event.setId(id++);
+        }
+    }
+
+    private void write(List<VideoWatchEvent> events) {
+        rollupService.recordEvents(events, () -> jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, events, batchSize, (ps, event) -> {
+            ps.setLong(1, event.getId());
+            ps.setString(2, event.getEmail());
+            setInteger(ps, 3, event.getParticipantId());
+            ps.setString(4, event.getSessionId());
+            setLong(ps, 5, event.getVideo() != null ? event.getVideo().getId() : null);
+            ps.setString(6, event.getEventType().name());
+            setDouble(ps, 7, event.getVideoTime());
+            setDouble(ps, 8, event.getVideoDuration());
+            setDouble(ps, 9, event.getPercentWatched());
+            ps.setString(10, event.getDetails());
+            setTimestamp(ps, 11, event.getTimestamp());
+            ps.setString(12, event.getIpAddress());
+            ps.setString(13, event.getUserAgent());
+        }));
+    }
+
+    public void insertCompletion(VideoCompletion completion) {
+        insertCompletions(List.of(completion));
+    }
+
+    public void insertCompletions(List<VideoCompletion> completions) {
+        if (completions.isEmpty()) {
+            return;
+        }
+        long id = idRangeAllocator.allocate("video_completion", completions.size());
+        for (VideoCompletion completion : completions) {
+            completion.setId(id++);
+        }
+        rollupService.recordCompletions(completions, () -> jdbcTemplate.batchUpdate(INSERT_COMPLETION_SQL, completions, batchSize, (ps, completion) -> {
+            ps.setLong(1, completion.getId());
+            ps.setString(2, completion.getEmail());
+            setInteger(ps, 3, completion.getParticipantId());
+            ps.setLong(4, completion.getVideo().getId());
+            setTimestamp(ps, 5, completion.getCompletedAt());
+        }));
+    }
+
+    // Written the way Hibernate writes them under hibernate.jdbc.time_zone=UTC, so both paths agree
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        ps.setTimestamp(index, Timestamp.valueOf(value), Calendar.getInstance(UTC));
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
@@ -6,11 +6,16 @@ import com.blbu.BLBU_VR_APP_SERVICE.repository.UserRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PreDestroy;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UserService {
@@ -22,7 +27,23 @@ public class UserService {
     private VRAppUserRepository vrAppUserRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private VrAppUserService vrAppUserService;
+
+    // Hash upgrades are best effort: when the queue is full the write is dropped and the next login retries it
+    private final ThreadPoolExecutor upgradeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "password-upgrade");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        upgradeExecutor.shutdown();
+    }
 
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
@@ -34,7 +55,7 @@ public class UserService {
             throw new IllegalArgumentException("Email already in use: " + user.getEmail());
         }
         
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(hashPassword(user.getPassword()));
         try {
             return userRepository.save(user);
         } catch (DataIntegrityViolationException e) {
@@ -42,12 +63,57 @@ public class UserService {
         }
     }
 
-    public boolean validateUserCredentials(String email, String rawPassword) {
+    /**
+     * Checks a password on the hashing pool. Completes with the user when the credentials are valid,
+     * or fails with RejectedExecutionException when the pool is saturated.
+     * A hash stored at an older cost is upgraded in the background after a successful check.
+     */
+    public CompletableFuture<Optional<User>> authenticate(String email, String rawPassword) {
         Optional<User> optionalUser = userRepository.findByEmail(email);
-        if (optionalUser.isPresent()) {
-            return passwordEncoder.matches(rawPassword, optionalUser.get().getPassword());
+        if (optionalUser.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        User user = optionalUser.get();
+        String storedHash = user.getPassword();
+        return passwordHashingService.matches(rawPassword, storedHash).thenApply(valid -> {
+            if (!valid) {
+                return Optional.<User>empty();
+            }
+            if (passwordHashingService.needsUpgrade(storedHash)) {
+                upgradeHash(email, rawPassword, storedHash);
+            }
+            return Optional.of(user);
+        });
+    }
+
+    /**
+     * The new hash is computed on the hashing pool, but written from {@link #upgradeExecutor} so a
+     * slow database never holds a hashing thread that logins are waiting for.
+     */
+    private void upgradeHash(String email, String rawPassword, String oldHash) {
+        passwordHashingService.hash(rawPassword).whenCompleteAsync((newHash, error) -> {
+            if (error != null) {
+                // Saturated or failed; the next login will try again
+                return;
+            }
+            if (userRepository.replacePasswordHash(email, oldHash, newHash) > 0) {
+                passwordHashingService.recordUpgrade();
+            }
+        }, upgradeExecutor);
+    }
+
+    /**
+     * Hashes on the hashing pool and waits for the result; used by the (infrequent) registration paths.
+     */
+    private String hashPassword(String rawPassword) {
+        try {
+            return passwordHashingService.hash(rawPassword).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        return false;
     }
 
     public void registerVRAppUser(VRAppUser vrAppUser) {
@@ -59,7 +125,7 @@ public class UserService {
         // Save to main users table with role "user"
         User user = new User();
         user.setEmail(vrAppUser.getEmail());
-        user.setPassword(passwordEncoder.encode(vrAppUser.getPassword()));
+        user.setPassword(hashPassword(vrAppUser.getPassword()));
         user.setRole("user");
         
         try {
@@ -78,6 +144,7 @@ public class UserService {
         
         try {
             vrAppUserRepository.save(vrUser);
+            vrAppUserService.getVrUsersVersion().bump();
         } catch (DataIntegrityViolationException e) {
             // If vr_app_users save fails, we should clean up the users table entry
             userRepository.delete(user);
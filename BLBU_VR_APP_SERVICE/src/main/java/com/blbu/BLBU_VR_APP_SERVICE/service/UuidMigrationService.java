@@ -0,0 +1,116 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blbu.BLBU_VR_APP_SERVICE.util.Uuids;
+
+/**
+ * One-time rewrite of the random (v4) primary keys in {@code users} and {@code vr_app_users} to
+ * time-ordered UUIDv7s, followed by a table rebuild so the clustered index is compact again.
+ * Nothing references these ids (related tables join on email), so only the key itself changes.
+ * Runs once all beans exist but before the web server starts accepting requests, so no login or
+ * registration can touch a row while its key is being rewritten. A MySQL named lock keeps two
+ * instances starting together from migrating at the same time. Does nothing once every id is a v7.
+ */
+@Service
+public class UuidMigrationService implements SmartInitializingSingleton {
+
+    private static final String LOCK_NAME = "blbu_uuid_v7_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private static final List<String> TABLES = List.of("users", "vr_app_users");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public UuidMigrationService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.migrations.uuid-v7.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    public void migrate() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!namedLock(connection, "SELECT GET_LOCK(?, " + LOCK_TIMEOUT_SECONDS + ")")) {
+                System.err.println("UUIDv7 migration skipped: another instance holds " + LOCK_NAME + ", will retry on next start");
+                return null;
+            }
+            try {
+                migrateTables();
+            } finally {
+                namedLock(connection, "SELECT RELEASE_LOCK(?)");
+            }
+            return null;
+        });
+    }
+
+    private static boolean namedLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void migrateTables() {
+        for (String table : TABLES) {
+            try {
+                int rewritten = rewriteKeys(table);
+                if (rewritten > 0) {
+                    // InnoDB rebuilds the table, so the pages left half-empty by random inserts are reclaimed
+                    jdbcTemplate.queryForList("OPTIMIZE TABLE " + table);
+                    System.out.println("Rewrote " + rewritten + " id(s) in " + table + " as UUIDv7");
+                }
+            } catch (Exception e) {
+                System.err.println("UUIDv7 migration of " + table + " failed, will retry on next start: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gives every non-v7 row a new v7 id in one transaction. Rows keep their current key order.
+     */
+    private int rewriteKeys(String table) {
+        List<byte[]> oldIds = new ArrayList<>();
+        for (byte[] id : jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", byte[].class)) {
+            if (!Uuids.isV7(id)) {
+                oldIds.add(id);
+            }
+        }
+        if (oldIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>(oldIds.size());
+        for (byte[] oldId : oldIds) {
+            updates.add(new Object[] {Uuids.toBytes(Uuids.v7()), oldId});
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate("UPDATE " + table + " SET id = ? WHERE id = ?", updates));
+        return updates.size();
+    }
+}
@@ -0,0 +1,252 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.stereotype.Service;
+
+import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
+import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoMetadataRepository;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaCache;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaWriter;
+import com.blbu.BLBU_VR_APP_SERVICE.util.Mp4FastStart;
+import com.blbu.BLBU_VR_APP_SERVICE.util.Mp4FastStart.Box;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Background processing for uploaded videos: verifies the content hash used for deduplication,
+ * records the real duration/bitrate from the MP4 header and rewrites files whose moov box sits
+ * after the media data so playback can start immediately.
+ */
+@Service
+public class VideoPostProcessingService {
+
+    private final MediaStore mediaStore;
+    private final MediaCache mediaCache;
+    private final VideoMetadataRepository repository;
+
+    // One rewrite at a time: each job holds two temp copies of a potentially multi-GB file on disk
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "video-post-processing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public VideoPostProcessingService(MediaStore mediaStore, MediaCache mediaCache, VideoMetadataRepository repository) {
+        this.mediaStore = mediaStore;
+        this.mediaCache = mediaCache;
+        this.repository = repository;
+    }
+
+    /**
+     * Queues the video for processing. The returned future completes once its metadata has been updated.
+     */
+    public CompletableFuture<Void> submit(Long videoId) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                process(videoId);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Post-processing failed for video " + videoId + ": " + error.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void process(Long videoId) throws IOException {
+        VideoMetadata pending = repository.findById(videoId).orElse(null);
+        if (pending == null) {
+            return;
+        }
+        String filename = pending.resolveStorageKey();
+        MediaObject object = mediaStore.stat(filename)
+                .orElseThrow(() -> new IOException("Video not found in media store: " + filename));
+
+        // Hash of the bytes as uploaded, taken before any rewrite so re-uploads of the same file still match
+        MessageDigest digest = newSha256();
+        Double durationSeconds = null;
+        Long bitrate = null;
+        boolean fastStart = false;
+
+        List<Box> boxes = null;
+        ByteBuffer moov = null;
+        try {
+            boxes = Mp4FastStart.scan((position, length) -> readRange(filename, position, length), object.getSize());
+            Box moovBox = Mp4FastStart.find(boxes, "moov");
+            if (moovBox == null) {
+                throw new IOException("No moov box found");
+            }
+            if (moovBox.size() > Mp4FastStart.MAX_MOOV_SIZE) {
+                throw new IOException("moov box too large to process: " + moovBox.size() + " bytes");
+            }
+            moov = readRange(filename, moovBox.offset(), (int) moovBox.size());
+
+            Mp4FastStart.MovieInfo info = Mp4FastStart.readMovieInfo(moov);
+            durationSeconds = info.durationSeconds();
+            bitrate = info.durationSeconds() > 0
+                    ? Math.round(object.getSize() * 8 / info.durationSeconds())
+                    : null;
+            fastStart = !Mp4FastStart.needsFastStart(boxes);
+        } catch (IOException e) {
+            System.err.println("Skipping MP4 processing for " + filename + ": " + e.getMessage());
+            boxes = null;
+        }
+
+        // rewriteFastStart hashes the bytes as it downloads them
+        boolean hashed = false;
+        if (boxes != null && !fastStart) {
+            try {
+                rewriteFastStart(object, boxes, moov, digest);
+                fastStart = true;
+                hashed = true;
+            } catch (IOException | RuntimeException e) {
+                // The original is still in place; record what we measured and hash it as is
+                System.err.println("Fast-start rewrite failed for " + filename + ", keeping original: " + e.getMessage());
+                digest.reset();
+            }
+        }
+        if (!hashed) {
+            long read = mediaStore.transferTo(filename, 0, object.getSize(), new DigestChannel(digest, null));
+            if (read != object.getSize()) {
+                throw new IOException("Short read while hashing: expected " + object.getSize() + " bytes, got " + read);
+            }
+        }
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+
+        VideoMetadata metadata = repository.findById(videoId).orElse(null);
+        if (metadata == null || !filename.equals(metadata.resolveStorageKey())) {
+            // Video was deleted or re-pointed while we were working
+            return;
+        }
+        if (metadata.getContentHash() != null && !metadata.getContentHash().equals(contentHash)) {
+            System.err.println("Declared hash for " + filename + " did not match uploaded content; using " + contentHash);
+        }
+        metadata.setContentHash(contentHash);
+        metadata.setHashVerified(true);
+        metadata.setDurationSeconds(durationSeconds);
+        metadata.setBitrateBps(bitrate);
+        metadata.setFastStart(fastStart);
+        repository.save(metadata);
+
+        System.out.println("Post-processed video " + filename + ": sha256=" + contentHash + " duration=" + durationSeconds
+                + "s bitrate=" + bitrate + "bps fastStart=" + fastStart);
+    }
+
+    /**
+     * Downloads the object to a temp file, writes a rewritten copy next to it and uploads that over the original.
+     * Disk usage is two copies of the file; heap usage is bounded by the moov box.
+     */
+    private void rewriteFastStart(MediaObject object, List<Box> boxes, ByteBuffer moov, MessageDigest digest) throws IOException {
+        Path original = Files.createTempFile("faststart-in-", ".mp4");
+        Path rewritten = Files.createTempFile("faststart-out-", ".mp4");
+        try {
+            try (FileChannel out = FileChannel.open(original, StandardOpenOption.WRITE)) {
+                long copied = mediaStore.transferTo(object.getKey(), 0, object.getSize(), new DigestChannel(digest, out));
+                if (copied != object.getSize()) {
+                    throw new IOException("Short download: expected " + object.getSize() + " bytes, got " + copied);
+                }
+            }
+
+            try (FileChannel in = FileChannel.open(original, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(rewritten, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Mp4FastStart.rewrite(in, out, boxes, moov);
+            }
+
+            // Make sure nothing replaced the object while we were rewriting it
+            MediaObject current = mediaStore.stat(object.getKey()).orElse(null);
+            if (current == null || !current.getEtag().equals(object.getEtag())) {
+                throw new IOException("Object changed during rewrite; skipping upload");
+            }
+
+            try (FileChannel in = FileChannel.open(rewritten, StandardOpenOption.READ);
+                 MediaWriter target = mediaStore.openWriter(object.getKey(), object.getContentType())) {
+                long size = in.size();
+                long sent = 0;
+                while (sent < size) {
+                    sent += in.transferTo(sent, size - sent, target);
+                }
+                target.commit();
+            }
+            mediaCache.invalidate(object.getKey());
+        } finally {
+            Files.deleteIfExists(original);
+            Files.deleteIfExists(rewritten);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ByteBuffer readRange(String key, long position, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        mediaStore.transferTo(key, position, length, Channels.newChannel(out));
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Feeds every byte written through it into a digest, then on to {@code target} (or nowhere if null).
+     */
+    private static final class DigestChannel implements WritableByteChannel {
+        private final MessageDigest digest;
+        private final WritableByteChannel target;
+
+        DigestChannel(MessageDigest digest, WritableByteChannel target) {
+            this.digest = digest;
+            this.target = target;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int length = src.remaining();
+            digest.update(src.duplicate());
+            if (target == null) {
+                src.position(src.limit());
+                return length;
+            }
+            int written = 0;
+            while (src.hasRemaining()) {
+                written += target.write(src);
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
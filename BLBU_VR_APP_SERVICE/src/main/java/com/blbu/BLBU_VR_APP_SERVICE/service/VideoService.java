@@ -1,15 +1,25 @@
 package com.blbu.BLBU_VR_APP_SERVICE.service;
 
 import java.io.IOException;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,48 +27,72 @@ import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
 import com.blbu.BLBU_VR_APP_SERVICE.model.VideoMetadata;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoMetadataRepository;
-import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.model.VRAppUser;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaCache;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaObject;
+import com.blbu.BLBU_VR_APP_SERVICE.storage.MediaStore;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ResourceVersion;
 import java.util.List;
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.auth.oauth2.ServiceAccountCredentials;
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.BlobInfo;
-import com.google.cloud.storage.HttpMethod;
-import com.google.cloud.storage.Storage;
 
 @Service
 public class VideoService {
 
-    private final Storage storage;
+    private static final int MEDIA_LOCK_TIMEOUT_SECONDS = 30;
+
+    private final MediaStore mediaStore;
+    private final MediaCache mediaCache;
+    private final VideoPostProcessingService postProcessingService;
     private final VideoMetadataRepository repository;
-    private final String bucketName = "vr_therapy_videos";
     private final VideoCompletionRepository completionRepository;
-    private final VideoWatchEventRepository watchEventRepository;
+    private final TelemetryWriter telemetryWriter;
     private final VRAppUserRepository vrAppUserRepository;
+    private final VrAppUserService vrAppUserService;
+    private final ReportSnapshotService reportSnapshotService;
+    private final ParticipantDirectory participantDirectory;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Bumped by every change visible through the video list/count/today endpoints
+    private final ResourceVersion videosVersion = new ResourceVersion("videos");
 
-    public VideoService(Storage storage, VideoMetadataRepository repository, 
+    public VideoService(MediaStore mediaStore, MediaCache mediaCache,
+                       VideoPostProcessingService postProcessingService,
+                       VideoMetadataRepository repository,
                        VideoCompletionRepository completionRepository,
-                       VideoWatchEventRepository watchEventRepository,
-                       VRAppUserRepository vrAppUserRepository) {
-        this.storage = storage;
+                       TelemetryWriter telemetryWriter,
+                       VRAppUserRepository vrAppUserRepository,
+                       VrAppUserService vrAppUserService,
+                       ReportSnapshotService reportSnapshotService,
+                       ParticipantDirectory participantDirectory,
+                       JdbcTemplate jdbcTemplate) {
+        this.mediaStore = mediaStore;
+        this.mediaCache = mediaCache;
+        this.postProcessingService = postProcessingService;
         this.repository = repository;
         this.completionRepository = completionRepository;
-        this.watchEventRepository = watchEventRepository;
+        this.telemetryWriter = telemetryWriter;
         this.vrAppUserRepository = vrAppUserRepository;
+        this.vrAppUserService = vrAppUserService;
+        this.reportSnapshotService = reportSnapshotService;
+        this.participantDirectory = participantDirectory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public ResourceVersion getVideosVersion() {
+        return videosVersion;
     }
 
     /**
-     * Generates a signed URL for direct upload to GCS.
-     * This allows clients to upload large files (up to 10GB) directly to GCS.
+     * Generates a signed URL for direct upload to the media store.
+     * This allows clients to upload large files (up to 10GB) directly to GCS,
+     * or to the service's streaming upload endpoint when the local store is in use.
      *
      * @param originalFilename The original filename from the client
      * @param contentType The content type of the file being uploaded
+     * @param sha256 Optional hex SHA-256 of the file; if that content is already stored the upload is skipped
      * @return A map containing the signed URL and the generated filename
      */
-    public Map<String, String> generateSignedUploadUrl(String originalFilename, String contentType) {
+    public Map<String, String> generateSignedUploadUrl(String originalFilename, String contentType, String sha256) {
         // Generate a unique filename to avoid collisions
         String extension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
@@ -66,83 +100,176 @@ public class VideoService {
         }
         String generatedFilename = UUID.randomUUID().toString() + extension;
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, generatedFilename))
-                .setContentType(contentType != null ? contentType : "video/mp4")
-                .build();
+        Map<String, String> result = new HashMap<>();
+        result.put("filename", generatedFilename);
 
-        URL signedUrl;
-        try {
-            // Try to get service account credentials for signing
-            GoogleCredentials credentials = GoogleCredentials.getApplicationDefault();
-            
-            if (credentials instanceof ServiceAccountCredentials) {
-                // Use service account credentials directly for signing
-                ServiceAccountCredentials saCredentials = (ServiceAccountCredentials) credentials;
-                signedUrl = storage.signUrl(
-                        blobInfo,
-                        2,
-                        TimeUnit.HOURS,
-                        Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
-                        Storage.SignUrlOption.withContentType(),
-                        Storage.SignUrlOption.signWith(saCredentials)
-                );
-            } else {
-                // For user credentials or other credential types, use the default signer
-                // This requires the iam.serviceAccounts.signBlob permission
-                signedUrl = storage.signUrl(
-                        blobInfo,
-                        2,
-                        TimeUnit.HOURS,
-                        Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
-                        Storage.SignUrlOption.withContentType()
-                );
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to get credentials for signing URL: " + e.getMessage(), e);
+        Optional<VideoMetadata> storedCopy = findStoredCopy(normalizeHash(sha256));
+        if (storedCopy.isPresent()) {
+            // Same bytes already uploaded: confirm-upload will alias the existing object
+            String storedKey = storedCopy.get().resolveStorageKey();
+            System.out.println("Skipping upload of " + originalFilename + ", content already stored as " + storedKey);
+            result.put("duplicate", "true");
+            result.put("gcsUrl", mediaStore.publicUrl(storedKey));
+            return result;
         }
 
+        String signedUrl = mediaStore.createUploadUrl(generatedFilename, contentType != null ? contentType : "video/mp4");
+
         System.out.println("Generated signed upload URL for: " + generatedFilename);
 
-        Map<String, String> result = new HashMap<>();
-        result.put("signedUrl", signedUrl.toString());
-        result.put("filename", generatedFilename);
-        result.put("gcsUrl", String.format("https://storage.googleapis.com/%s/%s", bucketName, generatedFilename));
+        result.put("duplicate", "false");
+        result.put("signedUrl", signedUrl);
+        result.put("gcsUrl", mediaStore.publicUrl(generatedFilename));
         return result;
     }
 
     /**
      * Confirms the upload completion and saves video metadata.
-     * Called by the frontend after successfully uploading to GCS.
+     * Called by the frontend after successfully uploading to GCS, or directly after
+     * generate-upload-url reported a duplicate.
      *
      * @param filename The filename that was uploaded to GCS
      * @param title The video title
      * @param displayOrder The display order (1-7) for the video sequence
+     * @param sha256 Optional hex SHA-256 the client declared for the file
      * @return The GCS URL of the uploaded video
      */
-    public String confirmUploadAndAssign(String filename, String title, Integer displayOrder) {
-        // Verify the file exists in GCS
-        Blob blob = storage.get(BlobId.of(bucketName, filename));
-        if (blob == null) {
-            throw new RuntimeException("File not found in GCS: " + filename);
+    public String confirmUploadAndAssign(String filename, String title, Integer displayOrder, String sha256) {
+        String hash = normalizeHash(sha256);
+        Optional<VideoMetadata> existing = repository.findByFilename(filename);
+
+        // The bytes are either at the filename itself, or (for a deduplicated upload) in an existing object
+        String storageKey;
+        VideoMetadata source = null;
+        if (existing.isPresent()) {
+            storageKey = existing.get().resolveStorageKey();
+        } else if (mediaStore.exists(filename)) {
+            storageKey = filename;
+        } else {
+            source = findStoredCopy(hash)
+                    .orElseThrow(() -> new RuntimeException("File not found in storage: " + filename));
+            storageKey = source.resolveStorageKey();
         }
+        boolean aliased = !storageKey.equals(filename);
 
-        String gcsUrl = String.format("https://storage.googleapis.com/%s/%s", bucketName, filename);
+        String gcsUrl = mediaStore.publicUrl(storageKey);
 
         // Save or update metadata
-        Optional<VideoMetadata> existing = repository.findByFilename(filename);
         VideoMetadata metadata = existing.orElse(new VideoMetadata());
         metadata.setFilename(filename);
+        metadata.setStorageKey(storageKey);
         metadata.setTitle(title);
         metadata.setGcsUrl(gcsUrl);
         if (displayOrder != null) {
             metadata.setDisplayOrder(displayOrder);
         }
-        repository.save(metadata);
+        if (source != null) {
+            // Shared bytes were already verified and measured
+            metadata.setContentHash(source.getContentHash());
+            metadata.setHashVerified(true);
+            metadata.setDurationSeconds(source.getDurationSeconds());
+            metadata.setBitrateBps(source.getBitrateBps());
+            metadata.setFastStart(source.getFastStart());
+        } else if (existing.isEmpty()) {
+            metadata.setContentHash(hash);
+            metadata.setHashVerified(false);
+        }
+        if (source != null) {
+            // A purge may be deleting the shared object because its last video just went; under the
+            // object's lock either the purge sees this row, or this sees the object gone
+            VideoMetadata alias = metadata;
+            metadata = withStorageKeyLock(storageKey, () -> {
+                if (!mediaStore.exists(alias.getStorageKey())) {
+                    throw new RuntimeException("File not found in storage: " + filename);
+                }
+                return repository.save(alias);
+            });
+        } else {
+            metadata = repository.save(metadata);
+        }
+
+        if (source == null && existing.isEmpty()) {
+            // Verify the hash, measure duration/bitrate and move the moov box to the front in the background
+            postProcessingService.submit(metadata.getId()).thenRun(videosVersion::bump);
+        }
+        videosVersion.bump();
 
-        System.out.println("Confirmed upload for video: " + title + " (order: " + displayOrder + ") -> " + gcsUrl);
+        System.out.println("Confirmed upload for video: " + title + " (order: " + displayOrder + ") -> " + gcsUrl
+                + (aliased ? " (deduplicated)" : ""));
         return gcsUrl;
     }
 
+    /**
+     * A video whose stored bytes have a verified hash equal to {@code hash}, if its object still exists.
+     */
+    /**
+     * Deletes a media object once no video refers to it any more. The check and the delete hold the
+     * object's lock, so a deduplicated upload cannot start sharing the object in between.
+     */
+    public void deleteObjectIfUnreferenced(String storageKey) {
+        withStorageKeyLock(storageKey, () -> {
+            long references = repository.countByResolvedStorageKey(storageKey);
+            if (references > 0) {
+                System.out.println("Keeping media object " + storageKey + ", still used by " + references + " video(s)");
+                return null;
+            }
+            boolean deleted = mediaStore.delete(storageKey);
+            mediaCache.invalidate(storageKey);
+            if (!deleted) {
+                System.out.println("Media object not found or already deleted: " + storageKey);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code action} holding a MySQL named lock for one media object, so every instance agrees on
+     * whether the object is still referenced while it acts on that.
+     */
+    private <T> T withStorageKeyLock(String storageKey, Supplier<T> action) {
+        // Lock names are limited to 64 characters
+        String lockName = "blbu_media_" + UUID.nameUUIDFromBytes(storageKey.getBytes(StandardCharsets.UTF_8));
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            if (!namedLock(connection, "SELECT GET_LOCK(?, " + MEDIA_LOCK_TIMEOUT_SECONDS + ")", lockName)) {
+                throw new RuntimeException("Timed out waiting for the lock on media object " + storageKey);
+            }
+            try {
+                return action.get();
+            } finally {
+                namedLock(connection, "SELECT RELEASE_LOCK(?)", lockName);
+            }
+        });
+    }
+
+    private static boolean namedLock(Connection connection, String sql, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, lockName);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getInt(1) == 1;
+            }
+        }
+    }
+
+    private Optional<VideoMetadata> findStoredCopy(String hash) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return repository.findByContentHashAndHashVerifiedTrue(hash).stream()
+                .filter(v -> mediaStore.exists(v.resolveStorageKey()))
+                .findFirst();
+    }
+
+    private String normalizeHash(String sha256) {
+        if (sha256 == null || sha256.isBlank()) {
+            return null;
+        }
+        String hash = sha256.trim().toLowerCase();
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+        return hash;
+    }
+
     public VideoMetadata getVideoForDate(LocalDate date) {
         Optional<VideoMetadata> result = repository.findByAssignedDate(date);
         if (result.isEmpty()) {
@@ -153,58 +280,19 @@ public class VideoService {
         return result.get();
     }
 
-    public String getVideoPublicUrl(String filename) throws IOException {
-        System.out.println("Fetching public URL for GCS object: " + filename);
+    public String getVideoPublicUrl(VideoMetadata metadata) throws IOException {
+        String filename = metadata.resolveStorageKey();
+        System.out.println("Fetching public URL for media object: " + filename);
 
-        Blob blob = storage.get(BlobId.of(bucketName, filename));
-        if (blob == null) {
-            System.out.println("GCS file not found: " + filename);
-            throw new IOException("Video not found in bucket: " + filename);
+        if (mediaCache.stat(filename).isEmpty()) {
+            System.out.println("Media file not found: " + filename);
+            throw new IOException("Video not found in media store: " + filename);
         }
 
-        // If your bucket is public, this URL already works:
-        return String.format("https://storage.googleapis.com/%s/%s", bucketName, filename);
+        return mediaCache.publicUrl(filename);
     }
 
 
-    @Transactional
-    public boolean deleteVideoByDate(LocalDate date) {
-        Optional<VideoMetadata> existing = repository.findByAssignedDate(date);
-        if (existing.isEmpty()) {
-            System.out.println("No video metadata found for date: " + date);
-            return false;
-        }
-
-        VideoMetadata metadata = existing.get();
-        Long videoId = metadata.getId();
-        String filename = metadata.getFilename();
-        System.out.println("Deleting video: " + filename + " (id=" + videoId + ") from bucket=" + bucketName);
-
-        try {
-            // Delete related records first (foreign key constraints)
-            System.out.println("Deleting related watch events...");
-            watchEventRepository.deleteAllByVideoId(videoId);
-            
-            System.out.println("Deleting related completions...");
-            completionRepository.deleteAllByVideoId(videoId);
-
-            // Delete from GCS
-            boolean deleted = storage.delete(BlobId.of(bucketName, filename));
-            if (!deleted) {
-                System.out.println("️GCS object not found or already deleted: " + filename);
-            }
-
-            // Delete metadata from DB
-            repository.delete(metadata);
-            System.out.println("Deleted metadata and video for date: " + date);
-            return true;
-        } catch (Exception e) {
-            System.out.println("Failed to delete video: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     public int getTotalVideoCount() {
         return (int) repository.count();
     }
@@ -213,43 +301,6 @@ public class VideoService {
         return repository.findAll();
     }
 
-    @Transactional
-    public boolean deleteVideoByFilename(String filename) {
-        Optional<VideoMetadata> existing = repository.findByFilename(filename);
-        if (existing.isEmpty()) {
-            System.out.println("No video metadata found for filename: " + filename);
-            return false;
-        }
-
-        VideoMetadata metadata = existing.get();
-        Long videoId = metadata.getId();
-        System.out.println("Deleting video: " + filename + " (id=" + videoId + ") from bucket=" + bucketName);
-
-        try {
-            // Delete related records first (foreign key constraints)
-            System.out.println("Deleting related watch events...");
-            watchEventRepository.deleteAllByVideoId(videoId);
-            
-            System.out.println("Deleting related completions...");
-            completionRepository.deleteAllByVideoId(videoId);
-
-            // Delete from GCS
-            boolean deleted = storage.delete(BlobId.of(bucketName, filename));
-            if (!deleted) {
-                System.out.println("️GCS object not found or already deleted: " + filename);
-            }
-
-            // Delete metadata from DB
-            repository.delete(metadata);
-            System.out.println("Deleted metadata and video for filename: " + filename);
-            return true;
-        } catch (Exception e) {
-            System.out.println("Failed to delete video: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
     public String updateMetadata(String filename, String newTitle, Integer displayOrder) {
         VideoMetadata metadata = repository.findByFilename(filename)
                 .orElseThrow(() -> new RuntimeException("Video not found for filename: " + filename));
@@ -261,6 +312,7 @@ public class VideoService {
         metadata.setUpdatedAt(LocalDateTime.now());
 
         repository.save(metadata);
+        videosVersion.bump();
 
         return "Updated metadata for video: " + filename;
     }
@@ -287,11 +339,13 @@ public class VideoService {
 
         VideoCompletion completion = VideoCompletion.builder()
                 .email(email)
+                .participantId(participantDirectory.idFor(email))
                 .video(video)
                 .completedAt(LocalDateTime.now())
                 .build();
 
-        completionRepository.save(completion);
+        telemetryWriter.insertCompletion(completion);
+        reportSnapshotService.invalidateIfClosed(completion.getCompletedAt().toLocalDate());
     }
 
     /**
@@ -309,9 +363,7 @@ public class VideoService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
         
         int currentDay = user.getCurrentDay();
-        // Calculate which video order (1-7) based on day
-        // Days 1-2 -> order 1, Days 3-4 -> order 2, etc.
-        int videoOrder = ((currentDay - 1) / 2) + 1;
+        int videoOrder = videoOrderForDay(currentDay);
         
         // Find video with this display order
         Optional<VideoMetadata> videoOpt = repository.findByDisplayOrder(videoOrder);
@@ -323,6 +375,90 @@ public class VideoService {
         return videoOpt.get();
     }
 
+    /**
+     * Display order of the video for a study day: days 1-2 -> order 1, days 3-4 -> order 2, etc.
+     */
+    static int videoOrderForDay(int currentDay) {
+        return ((currentDay - 1) / 2) + 1;
+    }
+
+    /**
+     * The user's study day, read without loading the user
+     */
+    public int getCurrentDay(String email) {
+        return vrAppUserRepository.findCurrentDayByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+    }
+
+    /**
+     * Playlist for a headset: the video for the given study day plus the next one in the sequence,
+     * so the next video can be downloaded ahead of time. It only depends on the day and on the videos,
+     * so callers validate it with the day and {@link #getVideosVersion()} before building it.
+     */
+    public Map<String, Object> getPlaylistManifest(int currentDay) {
+        int videoOrder = videoOrderForDay(currentDay);
+
+        Map<String, Object> current = repository.findByDisplayOrder(videoOrder)
+                .map(this::manifestEntry)
+                .orElseThrow(() -> new RuntimeException("No video found with display order " + videoOrder + " for user day " + currentDay));
+        // The last video has no successor; a next video that is missing from storage is simply not advertised
+        Map<String, Object> next = repository.findByDisplayOrder(videoOrder + 1)
+                .map(this::manifestEntry)
+                .orElse(null);
+
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("currentDay", currentDay);
+        manifest.put("current", current);
+        manifest.put("next", next);
+        return manifest;
+    }
+
+    private Map<String, Object> manifestEntry(VideoMetadata metadata) {
+        String key = metadata.resolveStorageKey();
+        MediaObject object = mediaCache.stat(key).orElse(null);
+        if (object == null) {
+            System.out.println("Media file not found: " + key);
+            return null;
+        }
+        int displayOrder = metadata.getDisplayOrder();
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", metadata.getId());
+        entry.put("title", metadata.getTitle() != null ? metadata.getTitle() : "Your Session");
+        entry.put("displayOrder", displayOrder);
+        entry.put("startDay", (displayOrder - 1) * 2 + 1);
+        entry.put("url", mediaCache.publicUrl(key));
+        entry.put("size", object.getSize());
+        entry.put("contentType", object.getContentType());
+        // Only hashes the server has computed itself are safe for the headset to verify against
+        entry.put("sha256", Boolean.TRUE.equals(metadata.getHashVerified()) ? metadata.getContentHash() : null);
+        entry.put("etag", object.getEtag());
+        entry.put("durationSeconds", metadata.getDurationSeconds());
+        return entry;
+    }
+
+    /**
+     * Filenames of the videos active users are on now or will reach within the next
+     * {@code lookaheadOrders} display orders. Used to warm the media edge cache.
+     */
+    public Set<String> getUpcomingVideoFilenames(int lookaheadOrders) {
+        Set<Integer> orders = new TreeSet<>();
+        for (VRAppUser user : vrAppUserRepository.findByActiveTrue()) {
+            int videoOrder = videoOrderForDay(user.getCurrentDay());
+            for (int i = 0; i <= lookaheadOrders; i++) {
+                orders.add(videoOrder + i);
+            }
+        }
+
+        Set<String> filenames = new LinkedHashSet<>();
+        for (Integer order : orders) {
+            repository.findByDisplayOrder(order)
+                    .map(VideoMetadata::resolveStorageKey)
+                    .ifPresent(filenames::add);
+        }
+        return filenames;
+    }
+
     /**
      * Update video display order
      */
@@ -331,6 +467,7 @@ public class VideoService {
                 .orElseThrow(() -> new RuntimeException("Video not found: " + videoId));
         video.setDisplayOrder(displayOrder);
         repository.save(video);
+        videosVersion.bump();
     }
 
     /**
@@ -357,16 +494,19 @@ public class VideoService {
         // Record the completion
         VideoCompletion completion = VideoCompletion.builder()
                 .email(email)
+                .participantId(participantDirectory.idFor(email))
                 .video(currentVideo)
                 .completedAt(LocalDateTime.now())
                 .build();
-        completionRepository.save(completion);
+        telemetryWriter.insertCompletion(completion);
+        reportSnapshotService.invalidateIfClosed(completion.getCompletedAt().toLocalDate());
         
         // Check if user has completed this video twice
         if (hasCompletedVideoTwice(email, currentVideo.getId())) {
             // Advance to next day
             user.setCurrentDay(user.getCurrentDay() + 1);
             vrAppUserRepository.save(user);
+            vrAppUserService.getVrUsersVersion().bump();
             System.out.println("User " + email + " advanced to day " + user.getCurrentDay());
         }
     }
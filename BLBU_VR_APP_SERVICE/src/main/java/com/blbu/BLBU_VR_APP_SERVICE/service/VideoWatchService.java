@@ -20,19 +20,28 @@ import lombok.Data;
 public class VideoWatchService {
 
     private final VideoWatchEventRepository eventRepository;
+    private final TelemetryWriter telemetryWriter;
     private final VideoMetadataRepository videoRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ReportSnapshotService reportSnapshotService;
+    private final ParticipantDirectory participantDirectory;
 
     // Track active sessions and their max watched position
     private final Map<String, Double> sessionMaxPosition = new ConcurrentHashMap<>();
 
     public VideoWatchService(
             VideoWatchEventRepository eventRepository,
+            TelemetryWriter telemetryWriter,
             VideoMetadataRepository videoRepository,
-            SimpMessagingTemplate messagingTemplate) {
+            SimpMessagingTemplate messagingTemplate,
+            ReportSnapshotService reportSnapshotService,
+            ParticipantDirectory participantDirectory) {
         this.eventRepository = eventRepository;
+        this.telemetryWriter = telemetryWriter;
         this.videoRepository = videoRepository;
         this.messagingTemplate = messagingTemplate;
+        this.reportSnapshotService = reportSnapshotService;
+        this.participantDirectory = participantDirectory;
     }
 
     /**
@@ -46,6 +55,7 @@ public class VideoWatchService {
 
         VideoWatchEvent event = VideoWatchEvent.builder()
                 .email(request.getEmail())
+                .participantId(participantDirectory.idFor(request.getEmail()))
                 .sessionId(request.getSessionId())
                 .video(video)
                 .eventType(request.getEventType())
@@ -58,8 +68,14 @@ public class VideoWatchService {
                 .userAgent(request.getUserAgent())
                 .build();
 
-        // Save to database
-        event = eventRepository.save(event);
+        // Save to database (plain JDBC insert, see TelemetryWriter). Periodic progress updates are
+        // written in batches; everything else is written now, since completion checks read it back
+        if (event.getEventType() == EventType.PROGRESS_UPDATE) {
+            telemetryWriter.enqueueEvent(event);
+        } else {
+            telemetryWriter.insertEvent(event);
+        }
+        reportSnapshotService.invalidateIfClosed(event.getTimestamp().toLocalDate());
 
         // Broadcast to admin dashboard via WebSocket
         broadcastEvent(event);
@@ -18,8 +18,7 @@ import com.blbu.BLBU_VR_APP_SERVICE.model.VideoCompletion;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.UserRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VRAppUserRepository;
 import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoCompletionRepository;
-import com.blbu.BLBU_VR_APP_SERVICE.repository.VideoWatchEventRepository;
-import org.springframework.transaction.annotation.Transactional;
+import com.blbu.BLBU_VR_APP_SERVICE.util.ResourceVersion;
 
 @Service
 public class VrAppUserService {
@@ -34,7 +33,14 @@ public class VrAppUserService {
     UserRepository userRepository;
 
     @Autowired
-    VideoWatchEventRepository videoWatchEventRepository;
+    RollupService rollupService;
+
+    // Bumped by every change visible through the VR user list, including day advances made elsewhere
+    private final ResourceVersion vrUsersVersion = new ResourceVersion("vr-users");
+
+    public ResourceVersion getVrUsersVersion() {
+        return vrUsersVersion;
+    }
 
     public List<VRAppUser> getAllVRAppUsers() {
         return vrAppUserRepository.findAll();
@@ -61,6 +67,13 @@ public class VrAppUserService {
      * counting backwards from today (or yesterday if today hasn't been completed yet).
      */
     public int calculateStreak(String email) {
+        return calculateStreak(email, LocalDate.now());
+    }
+
+    /**
+     * The streak as it stood at the end of {@code asOf}; completions after that day are ignored.
+     */
+    public int calculateStreak(String email, LocalDate asOf) {
         List<String> completedDates = getCompletedDatesForUser(email);
         if (completedDates.isEmpty()) {
             return 0;
@@ -72,7 +85,7 @@ public class VrAppUserService {
             dateSet.add(LocalDate.parse(dateStr));
         }
 
-        LocalDate today = LocalDate.now();
+        LocalDate today = asOf;
         LocalDate checkDate = today;
 
         // If today hasn't been completed, start checking from yesterday
@@ -146,6 +159,7 @@ public class VrAppUserService {
             vrUser.setActive(active);
             vrUser = vrAppUserRepository.save(vrUser);
         }
+        vrUsersVersion.bump();
         
         return vrUser;
     }
@@ -161,8 +175,16 @@ public class VrAppUserService {
         List<Map<String, Object>> completedUsers = new ArrayList<>();
         List<Map<String, Object>> notCompletedUsers = new ArrayList<>();
         
+        // One read of today's rollups instead of every user's full completion history
+        Set<String> completedToday = new HashSet<>();
+        rollupService.getDay(today).forEach((key, totals) -> {
+            if (totals.getCompletions() > 0) {
+                completedToday.add(key.email());
+            }
+        });
+
         for (VRAppUser user : allUsers) {
-            boolean completed = existsByEmailAndDate(user.getEmail(), today);
+            boolean completed = completedToday.contains(user.getEmail());
             Map<String, Object> userInfo = new HashMap<>();
             userInfo.put("email", user.getEmail());
             userInfo.put("firstName", user.getFirstName());
@@ -187,55 +209,6 @@ public class VrAppUserService {
         return result;
     }
 
-    private boolean existsByEmailAndDate(String email, LocalDate date) {
-        List<VideoCompletion> completions = videoCompletionRepository.findAllByEmail(email);
-        return completions.stream()
-                .anyMatch(c -> c.getCompletedAt().toLocalDate().equals(date));
-    }
-
-    /**
-     * Delete a user and all their related data (VideoCompletion, VideoWatchEvent, VRAppUser, User)
-     */
-    @Transactional
-    public boolean deleteUser(String email) {
-        // Check if user exists
-        Optional<VRAppUser> vrUserOpt = vrAppUserRepository.findByEmail(email);
-        Optional<User> userOpt = userRepository.findByEmail(email);
-        
-        if (vrUserOpt.isEmpty() && userOpt.isEmpty()) {
-            return false;
-        }
-
-        // Don't allow deleting admin users
-        if (userOpt.isPresent() && userOpt.get().getRole() != null && 
-            userOpt.get().getRole().equalsIgnoreCase("admin")) {
-            throw new IllegalArgumentException("Cannot delete admin users");
-        }
-
-        // Delete related data first (foreign key constraints)
-        System.out.println("Deleting watch events for user: " + email);
-        videoWatchEventRepository.deleteAllByEmail(email);
-        
-        System.out.println("Deleting video completions for user: " + email);
-        List<VideoCompletion> completions = videoCompletionRepository.findAllByEmail(email);
-        videoCompletionRepository.deleteAll(completions);
-
-        // Delete VRAppUser if exists
-        if (vrUserOpt.isPresent()) {
-            System.out.println("Deleting VRAppUser: " + email);
-            vrAppUserRepository.delete(vrUserOpt.get());
-        }
-
-        // Delete User if exists
-        if (userOpt.isPresent()) {
-            System.out.println("Deleting User: " + email);
-            userRepository.delete(userOpt.get());
-        }
-
-        System.out.println("Successfully deleted user and all related data: " + email);
-        return true;
-    }
-
     /**
      * Update user's current day
      */
@@ -243,6 +216,8 @@ public class VrAppUserService {
         VRAppUser user = vrAppUserRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found: " + email));
         user.setCurrentDay(currentDay);
-        return vrAppUserRepository.save(user);
+        VRAppUser saved = vrAppUserRepository.save(user);
+        vrUsersVersion.bump();
+        return saved;
     }
 }
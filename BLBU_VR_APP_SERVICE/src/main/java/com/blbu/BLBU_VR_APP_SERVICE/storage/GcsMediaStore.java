@@ -0,0 +1,179 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.HttpMethod;
+import com.google.cloud.storage.Storage;
+
+/**
+ * {@link MediaStore} backed by a Google Cloud Storage bucket. This is the default store.
+ */
+@Component
+@ConditionalOnProperty(name = "media.store.type", havingValue = "gcs", matchIfMissing = true)
+public class GcsMediaStore implements MediaStore {
+
+    private static final int CHUNK_SIZE = 2 * 1024 * 1024;
+
+    private final Storage storage;
+    private final String bucketName;
+
+    public GcsMediaStore(Storage storage, @Value("${gcs.bucket-name:vr_therapy_videos}") String bucketName) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public Optional<MediaObject> stat(String key) {
+        Blob blob = storage.get(BlobId.of(bucketName, key));
+        return Optional.ofNullable(blob).map(this::toMediaObject);
+    }
+
+    @Override
+    public void write(String key, String contentType, byte[] content) {
+        storage.create(blobInfo(key, contentType), content);
+    }
+
+    /**
+     * Streams into a resumable upload, which GCS only finalizes when the channel is closed. Commit closes it;
+     * a close without commit abandons the session instead, so the stored object is left as it was.
+     */
+    @Override
+    public MediaWriter openWriter(String key, String contentType) {
+        WriteChannel channel = storage.writer(blobInfo(key, contentType));
+        return new MediaWriter() {
+            private boolean open = true;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return channel.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void commit() throws IOException {
+                if (!open) {
+                    throw new IOException("Writer for " + key + " is already closed");
+                }
+                open = false;
+                channel.close();
+            }
+
+            @Override
+            public void close() {
+                // An unfinalized resumable session is never visible and expires on its own
+                open = false;
+            }
+        };
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (ReadChannel reader = storage.reader(BlobId.of(bucketName, key))) {
+            reader.setChunkSize(CHUNK_SIZE);
+            reader.seek(position);
+            reader.limit(position + count);
+            return MediaStore.copy(reader, target, count, CHUNK_SIZE);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return storage.delete(BlobId.of(bucketName, key));
+    }
+
+    @Override
+    public List<MediaObject> list(String prefix) {
+        List<MediaObject> objects = new ArrayList<>();
+        storage.list(bucketName, Storage.BlobListOption.prefix(prefix))
+                .iterateAll()
+                .forEach(blob -> objects.add(toMediaObject(blob)));
+        return objects;
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        // If your bucket is public, this URL already works:
+        return String.format("https://storage.googleapis.com/%s/%s", bucketName, key);
+    }
+
+    /**
+     * Generates a V4 signed URL so clients can upload large files (up to 10GB) directly to GCS.
+     */
+    @Override
+    public String createUploadUrl(String key, String contentType) {
+        BlobInfo blobInfo = blobInfo(key, contentType);
+
+        URL signedUrl;
+        try {
+            // Try to get service account credentials for signing
+            GoogleCredentials credentials = GoogleCredentials.getApplicationDefault();
+
+            if (credentials instanceof ServiceAccountCredentials) {
+                // Use service account credentials directly for signing
+                ServiceAccountCredentials saCredentials = (ServiceAccountCredentials) credentials;
+                signedUrl = storage.signUrl(
+                        blobInfo,
+                        2,
+                        TimeUnit.HOURS,
+                        Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                        Storage.SignUrlOption.withContentType(),
+                        Storage.SignUrlOption.signWith(saCredentials)
+                );
+            } else {
+                // For user credentials or other credential types, use the default signer
+                // This requires the iam.serviceAccounts.signBlob permission
+                signedUrl = storage.signUrl(
+                        blobInfo,
+                        2,
+                        TimeUnit.HOURS,
+                        Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                        Storage.SignUrlOption.withContentType()
+                );
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to get credentials for signing URL: " + e.getMessage(), e);
+        }
+        return signedUrl.toString();
+    }
+
+    private BlobInfo blobInfo(String key, String contentType) {
+        return BlobInfo.newBuilder(BlobId.of(bucketName, key))
+                .setContentType(contentType)
+                .build();
+    }
+
+    private MediaObject toMediaObject(Blob blob) {
+        OffsetDateTime updated = blob.getUpdateTimeOffsetDateTime() != null
+                ? blob.getUpdateTimeOffsetDateTime() : blob.getCreateTimeOffsetDateTime();
+        return MediaObject.builder()
+                .key(blob.getName())
+                .size(blob.getSize() != null ? blob.getSize() : 0L)
+                .contentType(blob.getContentType())
+                .etag("\"" + blob.getGeneration() + "\"")
+                .lastModified(updated != null ? updated.toInstant() : null)
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link MediaStore} backed by a directory on local disk, for on-prem/clinic deployments and offline testing.
+ * Reads go through {@link FileChannel#transferTo} so file bytes are copied by the kernel instead of through the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "media.store.type", havingValue = "local")
+public class LocalMediaStore implements MediaStore {
+
+    // Files below this size are read with a memory mapping instead of transferTo
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final Path root;
+    private final String publicBaseUrl;
+
+    public LocalMediaStore(@Value("${media.local.root:./media}") String root,
+                           @Value("${media.public-base-url:http://localhost:8080}") String publicBaseUrl) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+        Files.createDirectories(this.root);
+        System.out.println("Local media store rooted at " + this.root);
+    }
+
+    @Override
+    public Optional<MediaObject> stat(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(toMediaObject(key, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(String key, String contentType, byte[] content) throws IOException {
+        try (MediaWriter writer = openWriter(key, contentType)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                writer.write(buffer);
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * Writes go to a temp file in the same directory, which is atomically moved into place on commit
+     * and deleted on a close without one, so readers never observe a partially written object.
+     */
+    @Override
+    public MediaWriter openWriter(String key, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new MediaWriter() {
+            private boolean open = true;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return channel.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void commit() throws IOException {
+                if (!open) {
+                    throw new IOException("Writer for " + key + " is already closed");
+                }
+                open = false;
+                try {
+                    try {
+                        channel.force(false);
+                    } finally {
+                        channel.close();
+                    }
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(temp);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!open) {
+                    return;
+                }
+                open = false;
+                try {
+                    channel.close();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        };
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long end = Math.min(position + count, channel.size());
+            if (end - position <= MAP_THRESHOLD) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.max(0, end - position));
+                long written = 0;
+                while (mapped.hasRemaining()) {
+                    written += target.write(mapped);
+                }
+                return written;
+            }
+            long transferred = 0;
+            while (position + transferred < end) {
+                long sent = channel.transferTo(position + transferred, end - position - transferred, target);
+                if (sent <= 0) {
+                    break;
+                }
+                transferred += sent;
+            }
+            return transferred;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            return Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            System.err.println("Failed to delete local media " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public List<MediaObject> list(String prefix) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().startsWith(".upload-"))
+                    .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                    .filter(key -> key.startsWith(prefix))
+                    .map(key -> stat(key).orElse(null))
+                    .filter(object -> object != null)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return publicBaseUrl + "/api/media/stream/" + key;
+    }
+
+    @Override
+    public String createUploadUrl(String key, String contentType) {
+        return publicBaseUrl + "/api/media/upload/" + key;
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        return path;
+    }
+
+    private MediaObject toMediaObject(String key, Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        return MediaObject.builder()
+                .key(key)
+                .size(size)
+                .contentType(MediaTypeFactory.getMediaType(path.getFileName().toString())
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                        .toString())
+                .etag("\"" + Long.toHexString(size) + "-" + Long.toHexString(modified) + "\"")
+                .lastModified(attributes.lastModifiedTime().toInstant())
+                .build();
+    }
+}
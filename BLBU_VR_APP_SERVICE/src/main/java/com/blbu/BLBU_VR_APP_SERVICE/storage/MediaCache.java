@@ -0,0 +1,509 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Optional read-through disk cache in front of the {@link MediaStore}, for sites with a slow uplink.
+ * Objects are filled from the origin once (concurrent misses for the same key share one fetch),
+ * kept on local disk under a total byte budget with LRU eviction, and served with NIO range reads.
+ * Every fill writes a file of its own, and an entry's files are only deleted once no request is
+ * reading them, so a refill or eviction never pulls a file out from under a transfer.
+ * When disabled every call passes straight through to the origin store.
+ */
+@Component
+public class MediaCache {
+
+    private static final String DATA_SUFFIX = ".bin";
+    private static final String META_SUFFIX = ".meta";
+
+    private final MediaStore origin;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long revalidateMillis;
+    private final String publicBaseUrl;
+
+    // Access-ordered: iteration starts at the least recently used entry. Guarded by "this".
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "media-cache-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Requests that waited on another request's fill of the same object
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesServedFromCache = new AtomicLong();
+    private final AtomicLong bytesServedFromOrigin = new AtomicLong();
+    private final AtomicLong bytesFilled = new AtomicLong();
+
+    public MediaCache(MediaStore origin,
+                      @Value("${media.cache.enabled:false}") boolean enabled,
+                      @Value("${media.cache.dir:./media-cache}") String directory,
+                      @Value("${media.cache.max-bytes:53687091200}") long maxBytes,
+                      @Value("${media.cache.revalidate-seconds:60}") long revalidateSeconds,
+                      @Value("${media.public-base-url:http://localhost:8080}") String publicBaseUrl) throws IOException {
+        this.origin = origin;
+        this.enabled = enabled;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.revalidateMillis = revalidateSeconds * 1000;
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                : publicBaseUrl;
+        if (enabled) {
+            Files.createDirectories(this.directory);
+            loadExistingEntries();
+            System.out.println("Media cache enabled at " + this.directory + " (" + totalBytes + "/" + maxBytes + " bytes in use)");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * URL clients should fetch the object from. With the cache enabled this is the service's streaming
+     * endpoint, so headsets pull from the clinic box instead of the bucket.
+     */
+    public String publicUrl(String key) {
+        return enabled ? publicBaseUrl + "/api/media/stream/" + key : origin.publicUrl(key);
+    }
+
+    /**
+     * Object metadata. Cached entries are revalidated against the origin at most once per revalidate window.
+     */
+    public Optional<MediaObject> stat(String key) {
+        if (enabled) {
+            Entry entry = touch(key);
+            if (entry != null && System.currentTimeMillis() - entry.verifiedAt < revalidateMillis) {
+                return Optional.of(entry.object);
+            }
+        }
+        Optional<MediaObject> object = origin.stat(key);
+        if (enabled) {
+            Entry entry = touch(key);
+            if (entry != null) {
+                if (object.isPresent() && object.get().getEtag().equals(entry.object.getEtag())) {
+                    entry.verifiedAt = System.currentTimeMillis();
+                } else {
+                    invalidate(key);
+                }
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Serves the object, filling the cache on a miss. Falls back to the origin if the object
+     * cannot be cached (disabled, or larger than the whole budget).
+     */
+    public void serve(MediaObject object, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!enabled || object.getSize() > maxBytes) {
+            MediaStreamer.serve(object, (position, count, target) -> {
+                long sent = origin.transferTo(object.getKey(), position, count, target);
+                bytesServedFromOrigin.addAndGet(sent);
+                return sent;
+            }, request, response);
+            return;
+        }
+
+        // Filled lazily so conditional (304) requests never touch the origin
+        MediaStreamer.serve(object, (position, count, target) -> {
+            Entry entry = fill(object);
+            try {
+                long sent = transferFromFile(entry.dataFile, position, count, target);
+                bytesServedFromCache.addAndGet(sent);
+                return sent;
+            } finally {
+                unpin(entry);
+            }
+        }, request, response);
+    }
+
+    /**
+     * Warms the cache for the given keys in the background. Keys already cached are skipped.
+     */
+    public void prefetchAsync(Collection<String> keys) {
+        if (!enabled) {
+            return;
+        }
+        for (String key : keys) {
+            prefetchExecutor.submit(() -> {
+                try {
+                    Optional<MediaObject> object = stat(key);
+                    if (object.isPresent() && object.get().getSize() <= maxBytes) {
+                        unpin(fill(object.get()));
+                    }
+                } catch (Exception e) {
+                    System.err.println("Media cache prefetch failed for " + key + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("bytesUsed", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("evictions", evictions.get());
+        stats.put("fillsInFlight", inFlight.size());
+        stats.put("bytesFilled", bytesFilled.get());
+        stats.put("bytesServedFromCache", bytesServedFromCache.get());
+        stats.put("bytesServedFromOrigin", bytesServedFromOrigin.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns a cache entry matching the object's current ETag, fetching it from the origin if needed.
+     * Only one origin fetch runs per key; concurrent callers wait on the same fill.
+     * The entry comes back pinned, and the caller must {@link #unpin} it once done reading.
+     */
+    private Entry fill(MediaObject object) throws IOException {
+        String key = object.getKey();
+        while (true) {
+            Entry cached = pinCurrent(key, object.getEtag());
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                Entry filled = await(existing);
+                if (filled.object.getEtag().equals(object.getEtag()) && pin(filled)) {
+                    coalesced.incrementAndGet();
+                    return filled;
+                }
+                // An older version's fill, or evicted before it could be read; look again
+                continue;
+            }
+
+            misses.incrementAndGet();
+            try {
+                Entry entry = download(object);
+                created.complete(entry);
+                return entry;
+            } catch (IOException | RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, created);
+            }
+        }
+    }
+
+    /**
+     * Fetches the object into a file of its own and indexes it, returning the new entry pinned.
+     */
+    private Entry download(MediaObject object) throws IOException {
+        String name = fileName(object.getKey()) + "-" + UUID.randomUUID();
+        Path dataFile = directory.resolve(name + DATA_SUFFIX);
+        Path temp = Files.createTempFile(directory, ".fill-", ".tmp");
+        try {
+            reserve(object.getSize());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long written = origin.transferTo(object.getKey(), 0, object.getSize(), channel);
+                if (written != object.getSize()) {
+                    throw new IOException("Short read filling cache for " + object.getKey()
+                            + ": expected " + object.getSize() + " bytes, got " + written);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+            writeMeta(directory.resolve(name + META_SUFFIX), object);
+        } catch (IOException | RuntimeException e) {
+            release(object.getSize());
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        bytesFilled.addAndGet(object.getSize());
+
+        Entry entry = new Entry(object, dataFile);
+        synchronized (this) {
+            entry.readers = 1;
+            Entry previous = entries.put(object.getKey(), entry);
+            if (previous != null) {
+                retire(previous);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Accounts for an incoming fill, evicting least recently used entries until it fits.
+     * Entries being read are skipped; if only those are left the budget is briefly exceeded.
+     */
+    private synchronized void reserve(long size) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes + size > maxBytes && iterator.hasNext()) {
+            Entry victim = iterator.next().getValue();
+            if (victim.readers > 0) {
+                continue;
+            }
+            iterator.remove();
+            evictions.incrementAndGet();
+            retire(victim);
+        }
+        totalBytes += size;
+    }
+
+    /**
+     * The key's entry, pinned, if it holds the given version of the object.
+     */
+    private synchronized Entry pinCurrent(String key, String etag) {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.object.getEtag().equals(etag)) {
+            return null;
+        }
+        entry.readers++;
+        return entry;
+    }
+
+    /**
+     * Keeps the entry's files in place until {@link #unpin}. Fails if the entry was already dropped.
+     */
+    private synchronized boolean pin(Entry entry) {
+        if (entry.retired) {
+            return false;
+        }
+        entry.readers++;
+        return true;
+    }
+
+    private synchronized void unpin(Entry entry) {
+        entry.readers--;
+        if (entry.readers == 0 && entry.retired) {
+            deleteFiles(entry);
+        }
+    }
+
+    /**
+     * Takes an entry that was just removed from the index off the budget. Its files go now,
+     * or when its last reader unpins it.
+     */
+    private synchronized void retire(Entry entry) {
+        entry.retired = true;
+        totalBytes -= entry.object.getSize();
+        if (entry.readers == 0) {
+            deleteFiles(entry);
+        }
+    }
+
+    private synchronized void release(long size) {
+        totalBytes -= size;
+    }
+
+    private synchronized Entry touch(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Drops a cached object, e.g. after it was deleted or replaced at the origin.
+     */
+    public synchronized void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            retire(entry);
+        }
+    }
+
+    private long transferFromFile(Path file, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                long sent = channel.transferTo(position + transferred, count - transferred, target);
+                if (sent <= 0) {
+                    break;
+                }
+                transferred += sent;
+            }
+            return transferred;
+        }
+    }
+
+    private Entry await(CompletableFuture<Entry> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rebuilds the index from a previous run. Files are ordered by modification time so the
+     * oldest fills are evicted first.
+     */
+    private void loadExistingEntries() throws IOException {
+        List<Path> metaFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".fill-")) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException ignored) {
+                        // Leftover from an interrupted fill; retried on next start
+                    }
+                } else if (name.endsWith(META_SUFFIX)) {
+                    metaFiles.add(file);
+                }
+            });
+        }
+        metaFiles.sort(Comparator.comparing(this::modifiedTime));
+
+        for (Path metaFile : metaFiles) {
+            String name = metaFile.getFileName().toString();
+            Path dataFile = directory.resolve(name.substring(0, name.length() - META_SUFFIX.length()) + DATA_SUFFIX);
+            try {
+                MediaObject object = readMeta(metaFile);
+                if (!Files.isRegularFile(dataFile) || Files.size(dataFile) != object.getSize()) {
+                    Files.deleteIfExists(metaFile);
+                    Files.deleteIfExists(dataFile);
+                    continue;
+                }
+                Entry entry = new Entry(object, dataFile);
+                // Force revalidation against the origin before first use
+                entry.verifiedAt = 0;
+                Entry previous = entries.put(object.getKey(), entry);
+                totalBytes += object.getSize();
+                if (previous != null) {
+                    // An older fill left behind when a newer one replaced it; meta files are in fill order
+                    retire(previous);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Discarding unreadable cache entry " + metaFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private FileTime modifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void writeMeta(Path metaFile, MediaObject object) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("key", object.getKey());
+        properties.setProperty("size", Long.toString(object.getSize()));
+        properties.setProperty("etag", object.getEtag());
+        if (object.getContentType() != null) {
+            properties.setProperty("contentType", object.getContentType());
+        }
+        if (object.getLastModified() != null) {
+            properties.setProperty("lastModified", Long.toString(object.getLastModified().toEpochMilli()));
+        }
+        try (Writer writer = Files.newBufferedWriter(metaFile, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+    }
+
+    private MediaObject readMeta(Path metaFile) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String lastModified = properties.getProperty("lastModified");
+        return MediaObject.builder()
+                .key(properties.getProperty("key"))
+                .size(Long.parseLong(properties.getProperty("size")))
+                .etag(properties.getProperty("etag"))
+                .contentType(properties.getProperty("contentType"))
+                .lastModified(lastModified != null ? Instant.ofEpochMilli(Long.parseLong(lastModified)) : null)
+                .build();
+    }
+
+    private void deleteFiles(Entry entry) {
+        try {
+            Files.deleteIfExists(entry.dataFile);
+            String name = entry.dataFile.getFileName().toString();
+            Files.deleteIfExists(directory.resolve(name.substring(0, name.length() - DATA_SUFFIX.length()) + META_SUFFIX));
+        } catch (IOException e) {
+            System.err.println("Failed to delete cache file " + entry.dataFile + ": " + e.getMessage());
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        final MediaObject object;
+        final Path dataFile;
+        volatile long verifiedAt = System.currentTimeMillis();
+        // Requests currently reading dataFile, and whether the entry has left the index; guarded by the cache
+        int readers;
+        boolean retired;
+
+        Entry(MediaObject object, Path dataFile) {
+            this.object = object;
+            this.dataFile = dataFile;
+        }
+    }
+}
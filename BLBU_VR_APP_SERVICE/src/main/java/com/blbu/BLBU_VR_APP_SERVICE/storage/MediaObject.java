@@ -0,0 +1,23 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Metadata for a single object held by a {@link MediaStore}.
+ */
+@Value
+@Builder
+public class MediaObject {
+
+    String key;
+    long size;
+    String contentType;
+
+    // Strong validator, already quoted for use in an ETag header
+    String etag;
+
+    Instant lastModified;
+}
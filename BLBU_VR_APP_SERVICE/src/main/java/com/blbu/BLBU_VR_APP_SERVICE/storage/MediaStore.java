@@ -0,0 +1,83 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Object storage used for videos and generated reports.
+ * Keys are slash-separated paths relative to the store root (e.g. "reports/daily-report-2024-01-15.pdf").
+ */
+public interface MediaStore {
+
+    Optional<MediaObject> stat(String key);
+
+    default boolean exists(String key) {
+        return stat(key).isPresent();
+    }
+
+    void write(String key, String contentType, byte[] content) throws IOException;
+
+    /**
+     * Opens a channel that creates or replaces the object. The object becomes visible once the writer is
+     * committed; closing it without a commit discards what was written.
+     */
+    MediaWriter openWriter(String key, String contentType) throws IOException;
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} into {@code target} without staging the object on the heap.
+     *
+     * @return the number of bytes actually written
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    default byte[] readAllBytes(String key) throws IOException {
+        MediaObject object = stat(key).orElseThrow(() -> new IOException("Object not found: " + key));
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(object.getSize(), Integer.MAX_VALUE - 8));
+        transferTo(key, 0, object.getSize(), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    boolean delete(String key);
+
+    List<MediaObject> list(String prefix);
+
+    /**
+     * URL a client can use to fetch the object directly.
+     */
+    String publicUrl(String key);
+
+    /**
+     * URL a client can PUT the object's bytes to.
+     */
+    String createUploadUrl(String key, String contentType);
+
+    /**
+     * Drains {@code source} into {@code target} through a direct buffer.
+     */
+    static long copy(ReadableByteChannel source, WritableByteChannel target, long limit, int bufferSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long transferred = 0;
+        while (transferred < limit) {
+            buffer.clear();
+            long remaining = limit - transferred;
+            if (remaining < buffer.capacity()) {
+                buffer.limit((int) remaining);
+            }
+            int read = source.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                transferred += target.write(buffer);
+            }
+        }
+        return transferred;
+    }
+}
@@ -0,0 +1,102 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a {@link MediaObject} to an HTTP response with conditional GET (ETag / Last-Modified)
+ * and single byte-range support. Bytes are copied channel-to-channel from the store.
+ */
+public final class MediaStreamer {
+
+    private MediaStreamer() {
+    }
+
+    /**
+     * Copies a byte range of an object's content into a channel.
+     */
+    @FunctionalInterface
+    public interface RangeSource {
+        long transferTo(long position, long count, WritableByteChannel target) throws IOException;
+    }
+
+    public static void serve(MediaStore store, MediaObject object,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(object, (position, count, target) -> store.transferTo(object.getKey(), position, count, target),
+                request, response);
+    }
+
+    public static void serve(MediaObject object, RangeSource source,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long lastModified = object.getLastModified() != null ? object.getLastModified().toEpochMilli() : -1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // Handles If-None-Match / If-Modified-Since (304) and If-Match / If-Unmodified-Since (412)
+        if (new ServletWebRequest(request, response).checkNotModified(object.getEtag(), lastModified)) {
+            return;
+        }
+
+        long size = object.getSize();
+        long start = 0;
+        long end = size - 1;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && size > 0 && ifRangeMatches(request, object.getEtag(), lastModified)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Multi-range requests are served as a full 200 response, which RFC 9110 permits
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    if (start >= size || start > end) {
+                        throw new IllegalArgumentException("Range not satisfiable");
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+
+        long count = size == 0 ? 0 : end - start + 1;
+        response.setContentType(object.getContentType() != null ? object.getContentType() : "application/octet-stream");
+        response.setContentLengthLong(count);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count == 0) {
+            return;
+        }
+        source.transferTo(start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * A Range request is honoured only if its If-Range validator (if any) still matches the current object.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag != null && !ifRange.startsWith("W/") && ifRange.equals(etag);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return lastModified >= 0 && lastModified / 1000 <= since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
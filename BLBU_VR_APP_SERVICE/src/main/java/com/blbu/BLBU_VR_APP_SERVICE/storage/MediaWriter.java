@@ -0,0 +1,17 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channel returned by {@link MediaStore#openWriter}. Bytes written are only published by {@link #commit()};
+ * closing a writer that was not committed discards them and leaves any existing object untouched,
+ * so a write that fails halfway never replaces a good object with a truncated one.
+ */
+public interface MediaWriter extends WritableByteChannel {
+
+    /**
+     * Publishes everything written so far as the object and closes the channel.
+     */
+    void commit() throws IOException;
+}
@@ -0,0 +1,131 @@
+package com.blbu.BLBU_VR_APP_SERVICE.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Byte-bounded LRU of small, frequently downloaded objects (e.g. report PDFs), held on the heap.
+ * Entries are keyed by object key and only used while their ETag matches the stored object, so a
+ * rewritten object is never served stale. A miss streams from the store and fills the cache from
+ * the same bytes on a full-object request; nothing is read twice.
+ */
+public class MemoryObjectCache {
+
+    private record Entry(String etag, byte[] content) {
+    }
+
+    private final MediaStore store;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public MemoryObjectCache(MediaStore store, long maxBytes, long maxEntryBytes) {
+        this.store = store;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Serves the object with ETag/304 and Range support, from memory when possible.
+     */
+    public void serve(MediaObject object, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Entry cached = lookup(object);
+        if (cached != null) {
+            MediaStreamer.serve(object, (position, count, target) -> {
+                ByteBuffer buffer = ByteBuffer.wrap(cached.content(), (int) position, (int) count);
+                long written = 0;
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer);
+                }
+                return written;
+            }, request, response);
+            return;
+        }
+
+        MediaStreamer.serve(object, (position, count, target) -> {
+            if (position != 0 || count != object.getSize() || object.getSize() > maxEntryBytes) {
+                return store.transferTo(object.getKey(), position, count, target);
+            }
+            ByteArrayOutputStream copy = new ByteArrayOutputStream((int) object.getSize());
+            long written = store.transferTo(object.getKey(), 0, count, new TeeChannel(target, copy));
+            if (written == object.getSize()) {
+                put(object, copy.toByteArray());
+            }
+            return written;
+        }, request, response);
+    }
+
+    public synchronized void invalidate(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.content().length;
+        }
+    }
+
+    private synchronized Entry lookup(MediaObject object) {
+        Entry entry = entries.get(object.getKey());
+        if (entry == null) {
+            return null;
+        }
+        if (object.getEtag() == null || !object.getEtag().equals(entry.etag())) {
+            invalidate(object.getKey());
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void put(MediaObject object, byte[] content) {
+        invalidate(object.getKey());
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes + content.length > maxBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().content().length;
+            iterator.remove();
+        }
+        entries.put(object.getKey(), new Entry(object.getEtag(), content));
+        totalBytes += content.length;
+    }
+
+    /**
+     * Writes to the response and keeps a copy of every byte that made it there.
+     */
+    private static final class TeeChannel implements WritableByteChannel {
+        private final WritableByteChannel target;
+        private final ByteArrayOutputStream copy;
+
+        TeeChannel(WritableByteChannel target, ByteArrayOutputStream copy) {
+            this.target = target;
+            this.copy = copy;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int start = src.position();
+            int written = target.write(src);
+            ByteBuffer slice = src.duplicate();
+            slice.position(start).limit(start + written);
+            byte[] bytes = new byte[written];
+            slice.get(bytes);
+            copy.write(bytes);
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return target.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+}
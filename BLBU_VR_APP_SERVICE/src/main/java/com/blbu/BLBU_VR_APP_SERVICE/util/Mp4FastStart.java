@@ -0,0 +1,219 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streaming MP4/QuickTime "fast-start" rewriter.
+ * Moves the {@code moov} box ahead of the media data and patches the chunk offset tables
+ * ({@code stco}/{@code co64}) so players can start without fetching the end of the file.
+ * Only the {@code moov} box is held in memory; media data is copied channel-to-channel.
+ */
+public class Mp4FastStart {
+
+    // moov grows with sample count, not file size; anything larger than this is not worth rewriting in memory
+    public static final int MAX_MOOV_SIZE = 64 * 1024 * 1024;
+
+    private static final Set<String> CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+
+    /**
+     * Reads {@code length} bytes at {@code position} of the source file.
+     */
+    @FunctionalInterface
+    public interface RangeReader {
+        ByteBuffer read(long position, int length) throws IOException;
+    }
+
+    public record Box(String type, long offset, long size) {
+        public long end() {
+            return offset + size;
+        }
+    }
+
+    public record MovieInfo(double durationSeconds, long timescale) {
+    }
+
+    /**
+     * Lists the top-level boxes of the file, or throws if it does not look like an MP4.
+     */
+    public static List<Box> scan(RangeReader reader, long fileSize) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long offset = 0;
+        while (offset + 8 <= fileSize) {
+            ByteBuffer header = reader.read(offset, (int) Math.min(16, fileSize - offset));
+            long size = Integer.toUnsignedLong(header.getInt(0));
+            String type = boxType(header, 4);
+            if (size == 1) {
+                if (header.limit() < 16) {
+                    throw new IOException("Truncated 64-bit box header at " + offset);
+                }
+                size = header.getLong(8);
+            } else if (size == 0) {
+                size = fileSize - offset;
+            }
+            if (size < 8 || offset + size > fileSize) {
+                throw new IOException("Invalid box '" + type + "' at " + offset + " with size " + size);
+            }
+            boxes.add(new Box(type, offset, size));
+            offset += size;
+        }
+        if (boxes.isEmpty() || !"ftyp".equals(boxes.get(0).type())) {
+            throw new IOException("Not an MP4 file (no leading ftyp box)");
+        }
+        return boxes;
+    }
+
+    public static Box find(List<Box> boxes, String type) {
+        return boxes.stream().filter(box -> box.type().equals(type)).findFirst().orElse(null);
+    }
+
+    /**
+     * True if the first {@code mdat} comes before {@code moov}, i.e. the file needs rewriting.
+     */
+    public static boolean needsFastStart(List<Box> boxes) {
+        Box moov = find(boxes, "moov");
+        Box mdat = find(boxes, "mdat");
+        return moov != null && mdat != null && mdat.offset() < moov.offset();
+    }
+
+    /**
+     * Reads the movie duration from the {@code mvhd} box inside {@code moov}.
+     */
+    public static MovieInfo readMovieInfo(ByteBuffer moov) throws IOException {
+        int mvhd = findChild(moov, 8, moov.limit(), "mvhd");
+        if (mvhd < 0) {
+            throw new IOException("moov has no mvhd box");
+        }
+        int version = moov.get(mvhd + 8) & 0xFF;
+        long timescale;
+        long duration;
+        if (version == 1) {
+            timescale = Integer.toUnsignedLong(moov.getInt(mvhd + 28));
+            duration = moov.getLong(mvhd + 32);
+        } else {
+            timescale = Integer.toUnsignedLong(moov.getInt(mvhd + 20));
+            duration = Integer.toUnsignedLong(moov.getInt(mvhd + 24));
+        }
+        if (timescale == 0) {
+            throw new IOException("mvhd has zero timescale");
+        }
+        return new MovieInfo((double) duration / timescale, timescale);
+    }
+
+    /**
+     * Writes a fast-start copy of {@code in} to {@code out}. {@code moov} is the original moov box and is patched in place.
+     * Chunk offsets pointing between the first {@code mdat} and the old {@code moov} shift forward by the moov size.
+     */
+    public static void rewrite(FileChannel in, FileChannel out, List<Box> boxes, ByteBuffer moov) throws IOException {
+        Box moovBox = find(boxes, "moov");
+        Box firstMdat = find(boxes, "mdat");
+        if (moovBox == null || firstMdat == null || moovBox.offset() < firstMdat.offset()) {
+            throw new IOException("File is already fast-start");
+        }
+
+        patchChunkOffsets(moov, 8, moov.limit(), firstMdat.offset(), moovBox.offset(), moovBox.size());
+
+        out.truncate(0);
+        long outPosition = 0;
+        for (Box box : boxes) {
+            if (box == moovBox) {
+                continue;
+            }
+            if (box == firstMdat) {
+                ByteBuffer patched = moov.duplicate();
+                patched.clear();
+                while (patched.hasRemaining()) {
+                    outPosition += out.write(patched, outPosition);
+                }
+            }
+            outPosition += copy(in, box.offset(), box.size(), out, outPosition);
+        }
+    }
+
+    private static void patchChunkOffsets(ByteBuffer moov, int start, int end,
+                                          long insertAt, long moovOffset, long delta) throws IOException {
+        int position = start;
+        while (position + 8 <= end) {
+            long size = Integer.toUnsignedLong(moov.getInt(position));
+            String type = boxType(moov, position + 4);
+            int headerSize = 8;
+            if (size == 1) {
+                size = moov.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = end - position;
+            }
+            if (size < headerSize || position + size > end) {
+                throw new IOException("Invalid box '" + type + "' inside moov");
+            }
+            int boxEnd = (int) (position + size);
+
+            if (CONTAINERS.contains(type)) {
+                patchChunkOffsets(moov, position + headerSize, boxEnd, insertAt, moovOffset, delta);
+            } else if ("stco".equals(type)) {
+                int count = moov.getInt(position + headerSize + 4);
+                int entry = position + headerSize + 8;
+                for (int i = 0; i < count; i++, entry += 4) {
+                    long value = Integer.toUnsignedLong(moov.getInt(entry));
+                    if (value >= insertAt && value < moovOffset) {
+                        value += delta;
+                        if (value > 0xFFFFFFFFL) {
+                            throw new IOException("Chunk offset overflows stco; co64 conversion not supported");
+                        }
+                        moov.putInt(entry, (int) value);
+                    }
+                }
+            } else if ("co64".equals(type)) {
+                int count = moov.getInt(position + headerSize + 4);
+                int entry = position + headerSize + 8;
+                for (int i = 0; i < count; i++, entry += 8) {
+                    long value = moov.getLong(entry);
+                    if (value >= insertAt && value < moovOffset) {
+                        moov.putLong(entry, value + delta);
+                    }
+                }
+            }
+            position = boxEnd;
+        }
+    }
+
+    private static int findChild(ByteBuffer buffer, int start, int end, String wanted) {
+        int position = start;
+        while (position + 8 <= end) {
+            long size = Integer.toUnsignedLong(buffer.getInt(position));
+            if (size < 8) {
+                return -1;
+            }
+            if (wanted.equals(boxType(buffer, position + 4))) {
+                return position;
+            }
+            position += (int) size;
+        }
+        return -1;
+    }
+
+    private static long copy(FileChannel in, long position, long count, FileChannel out, long outPosition) throws IOException {
+        long copied = 0;
+        while (copied < count) {
+            long sent = in.transferTo(position + copied, count - copied, out.position(outPosition + copied));
+            if (sent <= 0) {
+                throw new IOException("Unexpected end of input at " + (position + copied));
+            }
+            copied += sent;
+        }
+        return copied;
+    }
+
+    private static String boxType(ByteBuffer buffer, int index) {
+        byte[] type = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            type[i] = buffer.get(index + i);
+        }
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+}
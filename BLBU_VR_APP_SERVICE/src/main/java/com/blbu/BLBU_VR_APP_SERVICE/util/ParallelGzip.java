@@ -0,0 +1,312 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Multi-threaded gzip in the style of pigz, for archives, report bundles and exports.
+ * The input is split into fixed-size blocks that are deflated in parallel on a fork-join pool and
+ * written as concatenated gzip members, which any gzip reader accepts. Each member records its own
+ * length in a gzip extra field so our decompressor can find member boundaries and inflate in parallel;
+ * other gzip files fall back to a sequential read.
+ */
+public class ParallelGzip {
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+
+    // Extra-field subfield ID carrying the total member length (uint32 LE)
+    private static final byte SI1 = 'P';
+    private static final byte SI2 = 'Z';
+    private static final int HEADER_SIZE = 10 + 2 + 4 + 4;
+    private static final int TRAILER_SIZE = 8;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    // Blocks in flight per call; bounds memory to roughly 2 * WINDOW * BLOCK_SIZE
+    private static final int WINDOW = POOL.getParallelism() * 2;
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    // Formats whose payload is already entropy-coded; gzip only costs CPU on these
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-bzip2", "application/x-xz", "application/zstd", "application/pdf");
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "mp4", "m4v", "mov", "webm", "mkv", "mp3", "m4a", "aac", "ogg", "jpg", "jpeg", "png", "gif", "webp",
+            "zip", "gz", "tgz", "7z", "bz2", "xz", "zst", "pdf");
+
+    /**
+     * True if the content is already compressed and should be stored as-is.
+     *
+     * @param nameOrContentType a filename or a MIME type
+     */
+    public static boolean isAlreadyCompressed(String nameOrContentType) {
+        if (nameOrContentType == null) {
+            return false;
+        }
+        String value = nameOrContentType.toLowerCase(Locale.ROOT);
+        if (value.contains("/")) {
+            String type = value.split(";")[0].trim();
+            return type.startsWith("video/") || type.startsWith("audio/")
+                    || (type.startsWith("image/") && !type.equals("image/svg+xml") && !type.equals("image/bmp"))
+                    || COMPRESSED_TYPES.contains(type);
+        }
+        int dot = value.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(value.substring(dot + 1));
+    }
+
+    /**
+     * Compresses {@code inputFile} to {@code <name>.gz} next to it, or returns the input unchanged
+     * if it is an already-compressed media type.
+     */
+    public static File compress(File inputFile) throws IOException {
+        if (isAlreadyCompressed(inputFile.getName())) {
+            return inputFile;
+        }
+        File compressedFile = new File(inputFile.getParent(), inputFile.getName() + ".gz");
+        compress(inputFile.toPath(), compressedFile.toPath());
+        return compressedFile;
+    }
+
+    public static File decompress(File compressedFile) throws IOException {
+        String outputFileName = compressedFile.getName().replaceAll("\\.gz$", "");
+        File outputFile = new File(compressedFile.getParent(), outputFileName);
+        decompress(compressedFile.toPath(), outputFile.toPath());
+        return outputFile;
+    }
+
+    public static void compress(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            compress(in, out);
+        }
+    }
+
+    /**
+     * Reads {@code in} block by block, deflating up to {@link #WINDOW} blocks concurrently and
+     * writing the members to {@code out} in input order.
+     */
+    public static void compress(FileChannel in, FileChannel out) throws IOException {
+        Deque<ForkJoinTask<ByteBuffer>> pending = new ArrayDeque<>();
+        long size = in.size();
+        long position = 0;
+        while (position < size) {
+            ByteBuffer block = ByteBuffer.allocate((int) Math.min(BLOCK_SIZE, size - position));
+            while (block.hasRemaining()) {
+                if (in.read(block, position + block.position()) < 0) {
+                    throw new IOException("Input truncated while compressing");
+                }
+            }
+            position += block.capacity();
+            byte[] data = block.array();
+            pending.addLast(POOL.submit(() -> deflateMember(data)));
+            if (pending.size() >= WINDOW) {
+                writeFully(out, join(pending.removeFirst()));
+            }
+        }
+        while (!pending.isEmpty()) {
+            writeFully(out, join(pending.removeFirst()));
+        }
+        if (size == 0) {
+            writeFully(out, deflateMember(new byte[0]));
+        }
+    }
+
+    public static void decompress(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            decompress(in, out);
+        }
+    }
+
+    /**
+     * Inflates members in parallel when every member carries our length field, otherwise streams
+     * through {@link GZIPInputStream}.
+     */
+    public static void decompress(FileChannel in, FileChannel out) throws IOException {
+        List<long[]> members = indexMembers(in);
+        if (members == null) {
+            in.position(0);
+            InputStream gzip = new GZIPInputStream(Channels.newInputStream(in), 64 * 1024);
+            OutputStream sink = Channels.newOutputStream(out);
+            gzip.transferTo(sink);
+            sink.flush();
+            return;
+        }
+
+        // members[i] = {offset, length, uncompressed size}; output offsets are the running sum of sizes
+        long outputPosition = 0;
+        for (int start = 0; start < members.size(); start += WINDOW) {
+            List<ForkJoinTask<?>> batch = new ArrayList<>();
+            for (int i = start; i < Math.min(start + WINDOW, members.size()); i++) {
+                long[] member = members.get(i);
+                long writeAt = outputPosition;
+                outputPosition += member[2];
+                batch.add(POOL.submit(() -> {
+                    try {
+                        ByteBuffer inflated = inflateMember(in, member[0], (int) member[1], (int) member[2]);
+                        while (inflated.hasRemaining()) {
+                            out.write(inflated, writeAt + inflated.position());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> task : batch) {
+                join(task);
+            }
+        }
+        out.truncate(outputPosition);
+    }
+
+    private static ByteBuffer deflateMember(byte[] data) {
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+
+        byte[] buffer = new byte[HEADER_SIZE + data.length + (data.length >> 12) + (data.length >> 14) + 64 + TRAILER_SIZE];
+        int length = HEADER_SIZE;
+        while (!deflater.finished()) {
+            if (length == buffer.length - TRAILER_SIZE) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - TRAILER_SIZE - length);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        ByteBuffer member = ByteBuffer.wrap(buffer, 0, length + TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        member.put(0, (byte) 0x1f).put(1, (byte) 0x8b)
+                .put(2, (byte) 8)           // CM = deflate
+                .put(3, (byte) 0x04)        // FLG = FEXTRA
+                .putInt(4, 0)               // MTIME
+                .put(8, (byte) 0)           // XFL
+                .put(9, (byte) 255)         // OS = unknown
+                .putShort(10, (short) 8)    // XLEN
+                .put(12, SI1).put(13, SI2)
+                .putShort(14, (short) 4)
+                .putInt(16, length + TRAILER_SIZE)
+                .putInt(length, (int) crc.getValue())
+                .putInt(length + 4, data.length);
+        return member;
+    }
+
+    /**
+     * Walks member headers. Returns null if any member lacks the length field, in which case the
+     * boundaries cannot be found without inflating.
+     */
+    private static List<long[]> indexMembers(FileChannel in) throws IOException {
+        List<long[]> members = new ArrayList<>();
+        long size = in.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (offset < size) {
+            if (size - offset < HEADER_SIZE + TRAILER_SIZE || !readAt(in, header.clear(), offset)) {
+                return null;
+            }
+            boolean ours = header.get(0) == (byte) 0x1f && header.get(1) == (byte) 0x8b
+                    && header.get(3) == 0x04 && header.getShort(10) == 8
+                    && header.get(12) == SI1 && header.get(13) == SI2 && header.getShort(14) == 4;
+            if (!ours) {
+                return null;
+            }
+            long length = Integer.toUnsignedLong(header.getInt(16));
+            if (length < HEADER_SIZE + TRAILER_SIZE || offset + length > size || !readAt(in, trailer.clear(), offset + length - 4)) {
+                return null;
+            }
+            long uncompressed = Integer.toUnsignedLong(trailer.getInt(0));
+            if (uncompressed > BLOCK_SIZE) {
+                return null;
+            }
+            members.add(new long[] {offset, length, uncompressed});
+            offset += length;
+        }
+        return members;
+    }
+
+    private static ByteBuffer inflateMember(FileChannel in, long offset, int length, int uncompressed) throws IOException {
+        ByteBuffer member = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readAt(in, member, offset)) {
+            throw new IOException("Truncated gzip member at " + offset);
+        }
+        byte[] output = new byte[uncompressed];
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(member.array(), HEADER_SIZE, length - HEADER_SIZE - TRAILER_SIZE);
+        try {
+            int produced = 0;
+            while (produced < uncompressed && !inflater.finished()) {
+                int n = inflater.inflate(output, produced, uncompressed - produced);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                produced += n;
+            }
+            if (produced != uncompressed) {
+                throw new IOException("Corrupt gzip member at " + offset);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt gzip member at " + offset, e);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(output);
+        if ((int) crc.getValue() != member.getInt(length - TRAILER_SIZE)) {
+            throw new IOException("CRC mismatch in gzip member at " + offset);
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    private static boolean readAt(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
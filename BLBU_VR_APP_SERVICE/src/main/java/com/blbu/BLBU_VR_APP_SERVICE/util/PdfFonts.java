@@ -0,0 +1,47 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+/**
+ * Fonts shared by every PDF a thread renders.
+ * Standard 14 fonts are never embedded, so one set can serve any number of documents, but PDFont
+ * caches glyph widths in unsynchronized maps, so each rendering thread gets its own set.
+ */
+public final class PdfFonts {
+
+    private static final ThreadLocal<PdfFonts> CURRENT = ThreadLocal.withInitial(PdfFonts::new);
+
+    private final PDType1Font regular = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    private final PDType1Font bold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+    private PdfFonts() {
+    }
+
+    public static PdfFonts forCurrentThread() {
+        return CURRENT.get();
+    }
+
+    public PDType1Font regular() {
+        return regular;
+    }
+
+    public PDType1Font bold() {
+        return bold;
+    }
+
+    /**
+     * Replaces characters the standard fonts cannot encode, which would otherwise make showText throw.
+     */
+    public static String printable(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            result.append(c >= 0x20 && c <= 0xFF && c != 0x7F ? c : '?');
+        }
+        return result.toString();
+    }
+}
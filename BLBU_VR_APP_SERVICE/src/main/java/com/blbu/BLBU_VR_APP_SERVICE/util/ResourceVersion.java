@@ -0,0 +1,96 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Version stamp for a read-mostly resource, bumped by the service that writes it.
+ * Read endpoints turn the current stamp into ETag / Last-Modified headers and answer
+ * conditional GETs with 304 before loading anything from the database.
+ *
+ * Counters are in-memory, so the ETag also carries a per-process epoch: after a restart
+ * (or on another instance) clients get one full response rather than a stale 304.
+ */
+public class ResourceVersion {
+
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private record Stamp(long version, long lastModified) {
+    }
+
+    private final String name;
+    private final AtomicReference<Stamp> stamp = new AtomicReference<>(new Stamp(0, currentSecond()));
+
+    public ResourceVersion(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Marks the resource as changed. Inside a transaction the bump happens after commit,
+     * so a reader can never pair the new version with the old data.
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    public long getVersion() {
+        return stamp.get().version();
+    }
+
+    /**
+     * Answers a GET for this resource: 304 if the client's validators match the current version,
+     * otherwise the body from {@code loader} with ETag, Last-Modified and Cache-Control set.
+     * {@code variant} distinguishes representations that depend on more than the stored data
+     * (e.g. today's date); such responses are validated by ETag only.
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, String variant, CacheControl cacheControl,
+                                         Callable<T> loader) throws Exception {
+        // Read the stamp before loading, so a concurrent write can only make the stamp older than the body
+        Stamp current = stamp.get();
+        String etag = "\"" + name + "-" + EPOCH + "-" + current.version()
+                + (variant != null ? "-" + variant : "") + "\"";
+        long lastModified = variant == null ? current.lastModified() : -1;
+
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl);
+        if (lastModified > 0) {
+            builder.lastModified(lastModified);
+        }
+        return builder.body(loader.call());
+    }
+
+    private void increment() {
+        // Last-Modified must move on every bump, or an If-Modified-Since from earlier in the same second would still match
+        stamp.updateAndGet(previous -> new Stamp(previous.version() + 1,
+                Math.max(previous.lastModified() + 1000, currentSecond())));
+    }
+
+    // HTTP dates have one-second resolution
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+}
@@ -0,0 +1,58 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUID helpers. Ids are UUIDv7 (RFC 9562): a 48-bit millisecond timestamp followed by random bits, so
+ * new rows land at the end of InnoDB's clustered primary key instead of splitting pages all over it.
+ * Hibernate and the plain JDBC writers store them as BINARY(16), most significant bits first.
+ */
+public final class Uuids {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Guarded by Uuids.class; the 12-bit counter keeps ids from one millisecond in order
+    private static long lastMillis;
+    private static int sequence;
+
+    private Uuids() {
+    }
+
+    /**
+     * A new time-ordered id, strictly greater than every id previously returned by this JVM.
+     */
+    public static UUID v7() {
+        long millis;
+        int counter;
+        synchronized (Uuids.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Start in the lower half so a busy millisecond has room to count up
+                sequence = RANDOM.nextInt(0x800);
+            } else if (++sequence > 0xFFF) {
+                // Counter exhausted: borrow the next millisecond
+                lastMillis++;
+                sequence = 0;
+            }
+            millis = lastMillis;
+            counter = sequence;
+        }
+        long mostSigBits = (millis << 16) | 0x7000L | counter;
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    public static boolean isV7(byte[] bytes) {
+        return bytes != null && bytes.length == 16 && (bytes[6] & 0xF0) == 0x70;
+    }
+
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
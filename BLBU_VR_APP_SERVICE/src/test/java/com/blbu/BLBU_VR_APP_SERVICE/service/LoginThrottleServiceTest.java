@@ -0,0 +1,188 @@
+package com.blbu.BLBU_VR_APP_SERVICE.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.apache.catalina.valves.ValveBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.blbu.BLBU_VR_APP_SERVICE.service.LoginThrottleService.Decision;
+
+/**
+ * Steps a fake clock through the throttle's windows, delays and lockouts. Limits are small so each
+ * test spells out every attempt: a 60 s window, 10 s lockout, 1 s base delay doubling up to 4 s.
+ */
+class LoginThrottleServiceTest {
+
+    private static final String EMAIL = "participant@example.com";
+    private static final String HOME = "198.51.100.7";
+    private static final String ELSEWHERE = "203.0.113.9";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void failuresPastTheFreeAttemptsWaitADoublingDelay() {
+        LoginThrottleService throttle = throttle(10, 2, 100);
+
+        assertTrue(attempt(throttle, HOME).allowed());
+        assertTrue(attempt(throttle, HOME).allowed());
+        Decision waiting = attempt(throttle, HOME);
+        assertFalse(waiting.allowed());
+        assertEquals(1, waiting.retryAfterSeconds());
+
+        now.addAndGet(1_000);
+        assertTrue(attempt(throttle, HOME).allowed());
+        now.addAndGet(1_000);
+        assertEquals(1, attempt(throttle, HOME).retryAfterSeconds());
+        now.addAndGet(1_000);
+        assertTrue(attempt(throttle, HOME).allowed());
+
+        // Capped at the maximum delay
+        now.addAndGet(3_999);
+        assertFalse(attempt(throttle, HOME).allowed());
+        now.addAndGet(1);
+        assertTrue(attempt(throttle, HOME).allowed());
+    }
+
+    @Test
+    void attemptsExpireWithTheWindow() {
+        LoginThrottleService throttle = throttle(10, 2, 100);
+        attempt(throttle, HOME);
+        attempt(throttle, HOME);
+        assertFalse(attempt(throttle, HOME).allowed());
+
+        now.addAndGet(60_000);
+        assertTrue(attempt(throttle, HOME).allowed());
+        assertTrue(attempt(throttle, HOME).allowed());
+
+        throttle.evictIdle();
+        assertEquals(1, throttle.getStats().get("trackedEmails"));
+        now.addAndGet(60_000);
+        throttle.evictIdle();
+        assertEquals(0, throttle.getStats().get("trackedEmails"));
+        assertEquals(0, throttle.getStats().get("trackedAddresses"));
+    }
+
+    @Test
+    void tooManyAttemptsLockTheAccountUntilTheLockoutEnds() {
+        LoginThrottleService throttle = throttle(3, 3, 100);
+        assertTrue(attempt(throttle, ELSEWHERE).allowed());
+        assertTrue(attempt(throttle, ELSEWHERE).allowed());
+        // The attempt that reaches the limit is let through, it may be the right password
+        assertTrue(attempt(throttle, ELSEWHERE).allowed());
+
+        Decision locked = attempt(throttle, ELSEWHERE);
+        assertFalse(locked.allowed());
+        assertEquals(10, locked.retryAfterSeconds());
+        assertEquals(1L, throttle.getStats().get("lockouts"));
+
+        now.addAndGet(9_999);
+        assertFalse(attempt(throttle, ELSEWHERE).allowed());
+        now.addAndGet(1);
+        assertTrue(attempt(throttle, ELSEWHERE).allowed());
+    }
+
+    @Test
+    void successLiftsTheLockout() {
+        LoginThrottleService throttle = throttle(3, 3, 100);
+        attempt(throttle, HOME);
+        attempt(throttle, HOME);
+        attempt(throttle, HOME);
+        throttle.recordSuccess(EMAIL, HOME);
+
+        assertTrue(attempt(throttle, HOME).allowed());
+    }
+
+    @Test
+    void knownAddressIsNotLockedOutByAttemptsFromElsewhere() {
+        LoginThrottleService throttle = throttle(3, 3, 100);
+        assertTrue(attempt(throttle, HOME).allowed());
+        throttle.recordSuccess(EMAIL, HOME);
+
+        for (int i = 0; i < 3; i++) {
+            attempt(throttle, ELSEWHERE);
+        }
+        assertFalse(attempt(throttle, ELSEWHERE).allowed());
+        assertFalse(attempt(throttle, "192.0.2.1").allowed());
+        assertTrue(attempt(throttle, HOME).allowed());
+    }
+
+    @Test
+    void sharedAddressIsCappedButRefundedForSuccessfulLogins() {
+        LoginThrottleService throttle = throttle(10, 10, 3);
+        for (int i = 0; i < 3; i++) {
+            String email = "student" + i + "@example.com";
+            assertTrue(throttle.tryAcquire(email, HOME).allowed());
+            throttle.recordSuccess(email, HOME);
+        }
+        assertTrue(throttle.tryAcquire("student3@example.com", HOME).allowed());
+
+        for (int i = 4; i < 6; i++) {
+            assertTrue(throttle.tryAcquire("student" + i + "@example.com", HOME).allowed());
+        }
+        Decision capped = throttle.tryAcquire("student6@example.com", HOME);
+        assertFalse(capped.allowed());
+        assertEquals(60, capped.retryAfterSeconds());
+        assertTrue(throttle.tryAcquire("student6@example.com", ELSEWHERE).allowed());
+    }
+
+    @Test
+    void forwardedAddressIsOnlyTrustedFromInternalProxies() throws Exception {
+        // The throttle keys on getRemoteAddr(); with the native strategy Tomcat's RemoteIpValve sets it
+        ServerProperties properties = new ServerProperties();
+        properties.setForwardHeadersStrategy(ServerProperties.ForwardHeadersStrategy.NATIVE);
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+        new TomcatWebServerFactoryCustomizer(new MockEnvironment(), properties).customize(factory);
+        RemoteIpValve valve = factory.getEngineValves().stream()
+                .filter(RemoteIpValve.class::isInstance)
+                .map(RemoteIpValve.class::cast)
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(ELSEWHERE, clientAddress(valve, "10.0.0.5", ELSEWHERE));
+        assertEquals(ELSEWHERE, clientAddress(valve, "127.0.0.1", ELSEWHERE));
+        // A client cannot pick its own throttle key by sending the header directly
+        assertEquals(HOME, clientAddress(valve, HOME, ELSEWHERE));
+    }
+
+    private LoginThrottleService throttle(int emailMaxAttempts, int emailFreeAttempts, int ipMaxAttempts) {
+        LoginThrottleService throttle = new LoginThrottleService(60_000, emailMaxAttempts, emailFreeAttempts,
+                ipMaxAttempts, 1_000, 4_000, 10_000, 86_400_000, 1_000);
+        throttle.clock = now::get;
+        return throttle;
+    }
+
+    private static Decision attempt(LoginThrottleService throttle, String ip) {
+        return throttle.tryAcquire(EMAIL, ip);
+    }
+
+    private static String clientAddress(RemoteIpValve valve, String peer, String forwardedFor) throws Exception {
+        Request request = new Request(new Connector());
+        request.setCoyoteRequest(new org.apache.coyote.Request());
+        request.setRemoteAddr(peer);
+        request.setRemoteHost(peer);
+        request.getCoyoteRequest().getMimeHeaders().addValue("X-Forwarded-For").setString(forwardedFor);
+
+        AtomicReference<String> seen = new AtomicReference<>();
+        valve.setNext(new ValveBase() {
+            @Override
+            public void invoke(Request request, Response response) {
+                seen.set(request.getRemoteAddr());
+            }
+        });
+        valve.invoke(request, new Response());
+        return seen.get();
+    }
+}
@@ -0,0 +1,193 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.blbu.BLBU_VR_APP_SERVICE.util.Mp4FastStart.Box;
+
+/**
+ * Rewrites small synthetic files: ftyp, an mdat holding two 8-byte chunks, and a moov whose single
+ * track points at those chunks through stco or co64.
+ */
+class Mp4FastStartTest {
+
+    private static final byte[] FIRST_CHUNK = "chunk-1!".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SECOND_CHUNK = "chunk-2!".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void moovAlreadyFirstIsLeftAlone() throws IOException {
+        byte[] ftyp = ftyp();
+        // Chunk offsets only depend on where mdat starts, so build moov once to learn its size
+        int moovSize = moov(false, 0, 0).length;
+        long mdatPayload = ftyp.length + moovSize + 8;
+        Path file = write("first.mp4", ftyp, moov(false, mdatPayload, mdatPayload + 8), mdat());
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Box> boxes = Mp4FastStart.scan(reader(in), in.size());
+            assertEquals(List.of("ftyp", "moov", "mdat"), types(boxes));
+            assertFalse(Mp4FastStart.needsFastStart(boxes));
+
+            Path out = directory.resolve("out.mp4");
+            try (FileChannel target = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                assertThrows(IOException.class,
+                        () -> Mp4FastStart.rewrite(in, target, boxes, readBox(in, Mp4FastStart.find(boxes, "moov"))));
+            }
+        }
+    }
+
+    @Test
+    void moovAtEndIsMovedAndStcoOffsetsShift() throws IOException {
+        assertRewritten(false);
+    }
+
+    @Test
+    void moovAtEndIsMovedAndCo64OffsetsShift() throws IOException {
+        assertRewritten(true);
+    }
+
+    @Test
+    void readsDurationFromMvhd() throws IOException {
+        ByteBuffer moov = ByteBuffer.wrap(moov(false, 0, 0));
+        Mp4FastStart.MovieInfo info = Mp4FastStart.readMovieInfo(moov);
+        assertEquals(1000, info.timescale());
+        assertEquals(12.5, info.durationSeconds(), 1e-9);
+    }
+
+    @Test
+    void rejectsFilesWithoutFtyp() throws IOException {
+        Path file = write("bad.mp4", mdat());
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> Mp4FastStart.scan(reader(in), in.size()));
+        }
+    }
+
+    private void assertRewritten(boolean co64) throws IOException {
+        byte[] ftyp = ftyp();
+        byte[] mdat = mdat();
+        long mdatPayload = ftyp.length + 8;
+        byte[] moov = moov(co64, mdatPayload, mdatPayload + FIRST_CHUNK.length);
+        Path file = write("end.mp4", ftyp, mdat, moov);
+
+        Path out = directory.resolve("faststart.mp4");
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            List<Box> boxes = Mp4FastStart.scan(reader(in), in.size());
+            assertEquals(List.of("ftyp", "mdat", "moov"), types(boxes));
+            assertTrue(Mp4FastStart.needsFastStart(boxes));
+            Mp4FastStart.rewrite(in, target, boxes, readBox(in, Mp4FastStart.find(boxes, "moov")));
+        }
+
+        byte[] rewritten = Files.readAllBytes(out);
+        assertEquals(ftyp.length + mdat.length + moov.length, rewritten.length);
+        try (FileChannel result = FileChannel.open(out, StandardOpenOption.READ)) {
+            List<Box> boxes = Mp4FastStart.scan(reader(result), result.size());
+            assertEquals(List.of("ftyp", "moov", "mdat"), types(boxes));
+            assertFalse(Mp4FastStart.needsFastStart(boxes));
+        }
+
+        // Every chunk offset now points at the same bytes it pointed at before the move
+        long[] offsets = chunkOffsets(rewritten, ftyp.length, co64);
+        assertEquals(2, offsets.length);
+        assertEquals(mdatPayload + moov.length, offsets[0]);
+        assertArrayEquals(FIRST_CHUNK, Arrays.copyOfRange(rewritten, (int) offsets[0], (int) offsets[0] + 8));
+        assertArrayEquals(SECOND_CHUNK, Arrays.copyOfRange(rewritten, (int) offsets[1], (int) offsets[1] + 8));
+    }
+
+    /**
+     * Reads the entries of the single stco/co64 box in the moov at {@code moovOffset}.
+     */
+    private static long[] chunkOffsets(byte[] file, int moovOffset, boolean co64) {
+        ByteBuffer buffer = ByteBuffer.wrap(file);
+        byte[] wanted = (co64 ? "co64" : "stco").getBytes(StandardCharsets.US_ASCII);
+        int moovEnd = moovOffset + buffer.getInt(moovOffset);
+        for (int position = moovOffset; position + 8 <= moovEnd; position++) {
+            if (Arrays.equals(wanted, Arrays.copyOfRange(file, position, position + 4))) {
+                int count = buffer.getInt(position + 8);
+                long[] offsets = new long[count];
+                for (int i = 0; i < count; i++) {
+                    offsets[i] = co64 ? buffer.getLong(position + 12 + i * 8) : buffer.getInt(position + 12 + i * 4);
+                }
+                return offsets;
+            }
+        }
+        throw new AssertionError("No chunk offset table in moov");
+    }
+
+    private static byte[] ftyp() {
+        return box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[4], "isommp41".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] mdat() {
+        return box("mdat", FIRST_CHUNK, SECOND_CHUNK);
+    }
+
+    private static byte[] moov(boolean co64, long firstChunk, long secondChunk) {
+        // version/flags, creation and modification time, timescale 1000, duration 12.5 s
+        byte[] mvhd = box("mvhd", ByteBuffer.allocate(20).putInt(0).putInt(0).putInt(0).putInt(1000).putInt(12_500).array());
+        byte[] offsets = co64
+                ? box("co64", ByteBuffer.allocate(24).putInt(0).putInt(2).putLong(firstChunk).putLong(secondChunk).array())
+                : box("stco", ByteBuffer.allocate(16).putInt(0).putInt(2).putInt((int) firstChunk).putInt((int) secondChunk).array());
+        return box("moov", mvhd, box("trak", box("mdia", box("minf", box("stbl", offsets)))));
+    }
+
+    private static byte[] box(String type, byte[]... payloads) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] payload : payloads) {
+            body.writeBytes(payload);
+        }
+        return ByteBuffer.allocate(8 + body.size())
+                .putInt(8 + body.size())
+                .put(type.getBytes(StandardCharsets.US_ASCII))
+                .put(body.toByteArray())
+                .array();
+    }
+
+    private Path write(String name, byte[]... boxes) throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (byte[] box : boxes) {
+            file.writeBytes(box);
+        }
+        return Files.write(directory.resolve(name), file.toByteArray());
+    }
+
+    private static Mp4FastStart.RangeReader reader(FileChannel channel) {
+        return (position, length) -> {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            channel.read(buffer, position);
+            buffer.flip();
+            return buffer;
+        };
+    }
+
+    private static ByteBuffer readBox(FileChannel channel, Box box) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) box.size());
+        channel.read(buffer, box.offset());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static List<String> types(List<Box> boxes) {
+        return boxes.stream().map(Box::type).toList();
+    }
+}
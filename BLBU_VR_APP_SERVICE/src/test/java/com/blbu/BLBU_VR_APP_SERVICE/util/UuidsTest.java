@@ -0,0 +1,71 @@
+package com.blbu.BLBU_VR_APP_SERVICE.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.type.descriptor.java.UUIDJavaType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ids must sort in creation order the way MySQL compares BINARY(16) (unsigned bytes), and survive the
+ * trip through the byte form that both Hibernate and the JDBC writers store.
+ */
+class UuidsTest {
+
+    @Test
+    void idsAreVersion7WithTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = Uuids.v7();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        // Busy milliseconds borrow the next one, so an id may run slightly ahead of the clock
+        assertTrue(millis >= before && millis <= after + 1_000, "timestamp " + millis + " is not around " + before);
+        assertTrue(Uuids.isV7(Uuids.toBytes(id)));
+    }
+
+    @Test
+    void idsSortInCreationOrderAsStoredBytes() {
+        // Far more than fit in one millisecond's counter, so the overflow into the next millisecond is exercised
+        byte[] previous = Uuids.toBytes(Uuids.v7());
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            UUID id = Uuids.v7();
+            assertTrue(seen.add(id));
+            byte[] bytes = Uuids.toBytes(id);
+            assertTrue(Arrays.compareUnsigned(previous, bytes) < 0, "id " + i + " is not after the previous one");
+            previous = bytes;
+        }
+    }
+
+    @Test
+    void bytesRoundTripMostSignificantFirst() {
+        UUID id = Uuids.v7();
+        byte[] bytes = Uuids.toBytes(id);
+
+        assertEquals(16, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(id, new UUID(buffer.getLong(), buffer.getLong()));
+        // Same layout Hibernate uses for UUIDs mapped to BINARY(16)
+        assertArrayEquals(UUIDJavaType.ToBytesTransformer.INSTANCE.transform(id), bytes);
+        assertEquals(id, UUIDJavaType.ToBytesTransformer.INSTANCE.parse(bytes));
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void isV7RejectsOtherVersionsAndLengths() {
+        assertFalse(Uuids.isV7(Uuids.toBytes(UUID.randomUUID())));
+        assertFalse(Uuids.isV7(new byte[15]));
+        assertFalse(Uuids.isV7(null));
+    }
+}
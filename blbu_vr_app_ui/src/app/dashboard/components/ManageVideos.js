@@ -33,6 +33,7 @@ import FormControl from "@mui/material/FormControl";
 
 import dayjs from "dayjs";
 import EditVideoModal from "./EditVideoModal";
+import { waitForPurgeJob } from "./purgeJobs";
 
 export default function ManageVideos() {
     const [videos, setVideos] = useState([]);
@@ -188,6 +189,10 @@ export default function ManageVideos() {
             });
 
             if (res.ok) {
+                const job = await res.json();
+                setSnack({ open: true, msg: "Deleting video...", severity: "info" });
+                setDeleteDialog({ open: false, video: null });
+                await waitForPurgeJob(API_BASE_URL, token, job.jobId);
                 setSnack({ open: true, msg: "Video deleted successfully", severity: "success" });
                 fetchVideos();
             } else {
@@ -40,6 +40,7 @@ import CloseIcon from "@mui/icons-material/Close";
 import CloudUploadIcon from "@mui/icons-material/CloudUpload";
 import DragIndicatorIcon from "@mui/icons-material/DragIndicator";
 import EditVideoModal from "./EditVideoModal";
+import { waitForPurgeJob } from "./purgeJobs";
 
 const REQUIRED_VIDEOS = 7;
 
@@ -72,6 +73,10 @@ export default function Uploads() {
             });
 
             if (res.ok) {
+                const job = await res.json();
+                setSnack({ open: true, msg: "Deleting video...", severity: "info" });
+                setDeleteDialog({ open: false, video: null });
+                await waitForPurgeJob(API_BASE_URL, token, job.jobId);
                 setSnack({ open: true, msg: "Video deleted successfully", severity: "success" });
                 fetchVideos();
             } else {
@@ -192,15 +197,30 @@ export default function Uploads() {
         setSnack({ open: true, msg: "Upload cancelled", severity: "info" });
     };
 
+    // Hashing reads the whole file into memory, so skip dedup for very large files
+    const MAX_HASH_BYTES = 1024 * 1024 * 1024;
+
+    const hashFile = async (file) => {
+        if (!window.crypto?.subtle || file.size > MAX_HASH_BYTES) {
+            return null;
+        }
+        const digest = await window.crypto.subtle.digest("SHA-256", await file.arrayBuffer());
+        return Array.from(new Uint8Array(digest)).map(b => b.toString(16).padStart(2, "0")).join("");
+    };
+
     const uploadFileToGCS = async (fileItem, index) => {
         const { file, title } = fileItem;
         const token = localStorage.getItem("token");
 
-        // Step 1: Get signed URL
+        // Step 1: Get signed URL (the server skips the upload if it already has these bytes)
+        const sha256 = await hashFile(file);
         const urlParams = new URLSearchParams({
             filename: file.name,
             contentType: file.type || "video/mp4"
         });
+        if (sha256) {
+            urlParams.append("sha256", sha256);
+        }
 
         const urlRes = await fetch(`${API_BASE_URL}/api/videos/generate-upload-url?${urlParams}`, {
             method: "POST",
@@ -211,7 +231,19 @@ export default function Uploads() {
             throw new Error("Failed to get upload URL");
         }
 
-        const { signedUrl, filename } = await urlRes.json();
+        const { signedUrl, filename, duplicate } = await urlRes.json();
+
+        if (duplicate === "true") {
+            setFiles(prev => {
+                const updated = [...prev];
+                updated[index].uploadedFilename = filename;
+                updated[index].sha256 = sha256;
+                updated[index].uploadProgress = 100;
+                updated[index].uploadStatus = "uploaded";
+                return updated;
+            });
+            return filename;
+        }
 
         // Step 2: Upload to GCS with progress tracking
         return new Promise((resolve, reject) => {
@@ -238,6 +270,7 @@ export default function Uploads() {
                     setFiles(prev => {
                         const updated = [...prev];
                         updated[index].uploadedFilename = filename;
+                        updated[index].sha256 = sha256;
                         updated[index].uploadStatus = "uploaded";
                         return updated;
                     });
@@ -405,6 +438,9 @@ export default function Uploads() {
                     title: fileItem.title,
                     displayOrder: fileItem.displayOrder.toString(),
                 });
+                if (fileItem.sha256) {
+                    confirmParams.append("sha256", fileItem.sha256);
+                }
 
                 const confirmRes = await fetch(`${API_BASE_URL}/api/videos/confirm-upload?${confirmParams}`, {
                     method: "POST",
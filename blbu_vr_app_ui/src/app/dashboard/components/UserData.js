@@ -30,6 +30,7 @@ import EditIcon from "@mui/icons-material/Edit";
 import CheckIcon from "@mui/icons-material/Check";
 import CloseIcon from "@mui/icons-material/Close";
 import { useRouter } from "next/navigation";
+import { waitForPurgeJob } from "./purgeJobs";
 
 export default function UserData() {
     const [users, setUsers] = useState([]);
@@ -166,10 +167,14 @@ export default function UserData() {
                 throw new Error(data.error || "Failed to delete user");
             }
 
-            // Refresh the user list
-            fetchUsers();
+            // The user is deactivated straight away; their data is purged in the background
             setDeleteDialogOpen(false);
             setUserToDelete(null);
+            fetchUsers();
+            await waitForPurgeJob(API_BASE_URL, token, data.jobId);
+
+            // Refresh the user list
+            fetchUsers();
         } catch (err) {
             console.error("Failed to delete user:", err);
             alert(`Failed to delete user: ${err.message}`);
@@ -0,0 +1,19 @@
+// Deletes run as background purge jobs on the server; poll until one finishes.
+export async function waitForPurgeJob(apiBaseUrl, token, jobId, intervalMs = 1000) {
+    while (true) {
+        const res = await fetch(`${apiBaseUrl}/api/purge-jobs/${jobId}`, {
+            headers: { Authorization: `Bearer ${token}` },
+        });
+        if (!res.ok) {
+            throw new Error("Lost track of delete job");
+        }
+        const job = await res.json();
+        if (job.status === "COMPLETED") {
+            return job;
+        }
+        if (job.status === "FAILED") {
+            throw new Error(job.error || "Delete failed");
+        }
+        await new Promise(resolve => setTimeout(resolve, intervalMs));
+    }
+}